@@ -0,0 +1,96 @@
+package com.collabsphere.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broker channel interceptor for websocket.broker.mode=in-process. Team topic
+ * messages published on this node are handed to {@link InProcessBrokerBus},
+ * and messages from other nodes are replayed into the local simple broker.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.mode", havingValue = "in-process")
+public class BrokerFanOutInterceptor implements ChannelInterceptor {
+
+    // Marks replayed messages so they are not published back to the bus
+    private static final String RELAYED_HEADER = "collabsphereRelayed";
+
+    @Value("${websocket.broker.fan-out-prefixes:/topic/team/,/topic/whiteboard/}")
+    private List<String> fanOutPrefixes;
+
+    @Autowired
+    @Lazy
+    @Qualifier("brokerChannel")
+    private MessageChannel brokerChannel;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+
+    @PostConstruct
+    public void join() {
+        InProcessBrokerBus.join(nodeId, this::replay);
+    }
+
+    @PreDestroy
+    public void leave() {
+        InProcessBrokerBus.leave(nodeId);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                && !message.getHeaders().containsKey(RELAYED_HEADER)
+                && isFannedOut(SimpMessageHeaderAccessor.getDestination(message.getHeaders()))) {
+            published.increment();
+            InProcessBrokerBus.publish(nodeId, message);
+        }
+        return message;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getPublishedCount() {
+        return published.sum();
+    }
+
+    public long getReceivedCount() {
+        return received.sum();
+    }
+
+    private void replay(Message<?> message) {
+        received.increment();
+        brokerChannel.send(MessageBuilder.fromMessage(message).setHeader(RELAYED_HEADER, Boolean.TRUE).build());
+    }
+
+    private boolean isFannedOut(String destination) {
+        if (destination == null) {
+            return false;
+        }
+        for (String prefix : fanOutPrefixes) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,38 @@
+package com.collabsphere.config;
+
+import org.springframework.messaging.Message;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * JVM-wide stand-in for an external broker: every application context in the
+ * process that runs with websocket.broker.mode=in-process receives the topic
+ * messages published by the others. Meant for tests and local multi-node runs.
+ */
+public final class InProcessBrokerBus {
+
+    private static final Map<String, Consumer<Message<?>>> nodes = new ConcurrentHashMap<>();
+
+    private InProcessBrokerBus() {}
+
+    public static void join(String nodeId, Consumer<Message<?>> listener) {
+        nodes.put(nodeId, listener);
+    }
+
+    public static void leave(String nodeId) {
+        nodes.remove(nodeId);
+    }
+
+    /**
+     * Deliver a message to every node except the one it came from.
+     */
+    public static void publish(String originNodeId, Message<?> message) {
+        nodes.forEach((nodeId, listener) -> {
+            if (!nodeId.equals(originNodeId)) {
+                listener.accept(message);
+            }
+        });
+    }
+}
@@ -0,0 +1,94 @@
+package com.collabsphere.config;
+
+import com.collabsphere.security.TokenRevocationRegistry;
+import com.collabsphere.service.MessageArchiveService;
+import com.collabsphere.service.MessageSequencer;
+import com.collabsphere.service.MessageWriteBehindQueue;
+import com.collabsphere.service.PresenceService;
+import com.collabsphere.service.ReadCursorService;
+import com.collabsphere.service.TeamMembershipIndex;
+import com.collabsphere.service.WhiteboardOpLog;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refuses to start a node that shares its clients with other nodes (broker
+ * mode relay or in-process) while state they must agree on is only held in
+ * this JVM. Set cluster.enabled=true to keep that state in the database.
+ */
+@Component
+public class MultiNodeStateCheck {
+
+    @Autowired
+    private MessageSequencer messageSequencer;
+
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
+
+    @Autowired
+    private WhiteboardOpLog whiteboardOpLog;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private ReadCursorService readCursorService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @PostConstruct
+    public void verify() {
+        if ("simple".equals(brokerMode)) {
+            return;
+        }
+        List<String> nodeLocal = new ArrayList<>();
+        if (!messageSequencer.isShared()) {
+            nodeLocal.add("chat sequence numbers");
+        }
+        if (messageWriteBehindQueue.isEnabled()) {
+            // Its ids come from an in-memory counter seeded from MAX(id), and rows are inserted after the lock is gone
+            nodeLocal.add("write-behind message ids (chat.write-behind.enabled)");
+        }
+        if (!whiteboardOpLog.isShared()) {
+            nodeLocal.add("whiteboard operation sequence numbers");
+        }
+        if (!teamMembershipIndex.isShared()) {
+            nodeLocal.add("team memberships");
+        }
+        if (!tokenRevocationRegistry.isShared()) {
+            nodeLocal.add("token revocations");
+        }
+        if (!readCursorService.isShared()) {
+            nodeLocal.add("read cursors");
+        }
+        if (!presenceService.isShared()) {
+            nodeLocal.add("presence");
+        }
+        if (!nodeLocal.isEmpty()) {
+            throw new IllegalStateException("websocket.broker.mode=" + brokerMode
+                + " runs several nodes, but these are only kept in this node: " + String.join(", ", nodeLocal)
+                + ". Set cluster.enabled=true and chat.write-behind.enabled=false.");
+        }
+        if (messageArchiveService.isEnabled()) {
+            // Every node would run the job, and only the archiving node's segment index learns of a segment
+            throw new IllegalStateException("websocket.broker.mode=" + brokerMode
+                + " runs several nodes, but the chat archive keeps its segment index in each node."
+                + " Set chat.archive.enabled=false.");
+        }
+    }
+}
@@ -1,19 +1,128 @@
 package com.collabsphere.config;
 
+import com.collabsphere.security.StompAuthChannelInterceptor;
+import com.collabsphere.security.StompRateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Autowired
+    private StompAuthChannelInterceptor stompAuthChannelInterceptor;
+
+    @Autowired
+    private StompRateLimitInterceptor stompRateLimitInterceptor;
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    // Only present with websocket.broker.mode=in-process
+    @Autowired(required = false)
+    private BrokerFanOutInterceptor brokerFanOutInterceptor;
+
+    // simple (this JVM only), relay (external STOMP broker) or in-process (shared bus for tests)
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    // Created by the broker configuration itself, hence lazy
+    @Autowired
+    @Lazy
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${websocket.inbound.core-pool-size:0}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:0}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:0}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:0}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:0}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:0}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.heartbeat.server-ms:10000}")
+    private long serverHeartbeatMillis;
+
+    @Value("${websocket.heartbeat.client-ms:10000}")
+    private long clientHeartbeatMillis;
+
+    @Value("${websocket.sockjs.heartbeat-ms:25000}")
+    private long sockJsHeartbeatMillis;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic");
+        if ("relay".equals(brokerMode)) {
+            // Fan /topic out across nodes through an external STOMP broker (RabbitMQ, ActiveMQ, ...)
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(serverHeartbeatMillis)
+                    .setSystemHeartbeatReceiveInterval(clientHeartbeatMillis);
+            if (!relayVirtualHost.isEmpty()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Enable a simple memory-based message broker to carry messages back to the client
+            config.enableSimpleBroker("/topic")
+                    .setHeartbeatValue(new long[] { serverHeartbeatMillis, clientHeartbeatMillis })
+                    .setTaskScheduler(messageBrokerTaskScheduler);
+            if (brokerFanOutInterceptor != null) {
+                config.configureBrokerChannel().interceptors(brokerFanOutInterceptor);
+            }
+        }
         // Designate the "/app" prefix for messages that are bound for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
     }
@@ -23,6 +132,63 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Register the "/ws" endpoint for WebSocket connections
         registry.addEndpoint("/ws")
                 .setAllowedOrigins("*")  // Allow all origins for testing
-                .withSockJS();
+                .addInterceptors(new RawWebSocketMarker())
+                .withSockJS()
+                .setHeartbeatTime(sockJsHeartbeatMillis);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Sessions that cannot keep up with these limits are closed as slow consumers
+        registration.setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMillis)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(webSocketSessionMonitor);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Authenticate on CONNECT and authorize team destinations once per session,
+        // then throttle chat/whiteboard frames per user
+        registration.interceptors(stompAuthChannelInterceptor, stompRateLimitInterceptor);
+        configureExecutor(registration, inboundCorePoolSize, inboundMaxPoolSize, inboundQueueCapacity);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        // Count frames queued per session and cut off sessions that fall too far behind
+        registration.interceptors(webSocketSessionMonitor);
+        configureExecutor(registration, outboundCorePoolSize, outboundMaxPoolSize, outboundQueueCapacity);
+    }
+
+    // Zero keeps Spring's default for that setting
+    private void configureExecutor(ChannelRegistration registration, int corePoolSize, int maxPoolSize,
+                                   int queueCapacity) {
+        if (corePoolSize > 0) {
+            registration.taskExecutor().corePoolSize(corePoolSize);
+        }
+        if (maxPoolSize > 0) {
+            registration.taskExecutor().maxPoolSize(maxPoolSize);
+        }
+        if (queueCapacity > 0) {
+            registration.taskExecutor().queueCapacity(queueCapacity);
+        }
+    }
+
+    // SockJS also serves a raw WebSocket at /ws/websocket; only those sessions can carry binary frames
+    private static class RawWebSocketMarker implements HandshakeInterceptor {
+        @Override
+        public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                       WebSocketHandler wsHandler, Map<String, Object> attributes) {
+            if (request.getURI().getPath().endsWith("/ws/websocket")) {
+                attributes.put(StompAuthChannelInterceptor.RAW_WEBSOCKET_ATTRIBUTE, Boolean.TRUE);
+            }
+            return true;
+        }
+
+        @Override
+        public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                                   WebSocketHandler wsHandler, Exception exception) {
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.collabsphere.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tracks every WebSocket session and the number of its frames still queued on
+ * the client outbound channel. A session whose queue passes max-queued-messages
+ * is closed as a slow consumer, the same way the transport send limits close
+ * it, and both are counted as dropped sessions.
+ */
+@Component
+public class WebSocketSessionMonitor implements ExecutorChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    @Value("${websocket.outbound.max-queued-messages-per-session:1000}")
+    private int maxQueuedMessages;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder openedSessions = new LongAdder();
+    private final LongAdder droppedSessions = new LongAdder();
+    private final LongAdder queueLimitClosures = new LongAdder();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), new SessionState(session));
+                openedSessions.increment();
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                // Spring closes sessions over the send buffer or time limit with this status
+                if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(closeStatus)) {
+                    droppedSessions.increment();
+                }
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SessionState state = stateOf(message);
+        if (state == null) {
+            return message;
+        }
+        if (state.queued.incrementAndGet() > maxQueuedMessages) {
+            state.queued.decrementAndGet();
+            closeSlowConsumer(state);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Frames the executor never accepted will not reach afterMessageHandled
+        if (!sent || ex != null) {
+            release(message);
+        }
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("openSessions", sessions.size());
+        stats.put("openedSessions", openedSessions.sum());
+        stats.put("droppedSessions", droppedSessions.sum());
+        stats.put("queueLimitClosures", queueLimitClosures.sum());
+        stats.put("maxQueuedMessagesPerSession", maxQueuedMessages);
+
+        // Only the deepest queues are worth listing with thousands of sockets open
+        Map<String, Integer> deepest = new LinkedHashMap<>();
+        sessions.entrySet().stream()
+            .filter(entry -> entry.getValue().queued.get() > 0)
+            .sorted(Comparator.comparingInt((Map.Entry<String, SessionState> entry) -> entry.getValue().queued.get())
+                .reversed())
+            .limit(10)
+            .forEach(entry -> deepest.put(entry.getKey(), entry.getValue().queued.get()));
+        stats.put("deepestSessionQueues", deepest);
+        return stats;
+    }
+
+    private SessionState stateOf(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        return sessionId != null ? sessions.get(sessionId) : null;
+    }
+
+    private void release(Message<?> message) {
+        SessionState state = stateOf(message);
+        if (state != null) {
+            state.queued.decrementAndGet();
+        }
+    }
+
+    private void closeSlowConsumer(SessionState state) {
+        if (!state.closing.compareAndSet(0, 1)) {
+            return;
+        }
+        queueLimitClosures.increment();
+        try {
+            state.session.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            // The connection is already gone; afterConnectionClosed cleans up
+        }
+    }
+
+    private static class SessionState {
+        private final WebSocketSession session;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger closing = new AtomicInteger();
+
+        private SessionState(WebSocketSession session) {
+            this.session = session;
+        }
+    }
+}
@@ -5,16 +5,16 @@ import com.collabsphere.dto.ApiResponse;
 import com.collabsphere.dto.CreateClassRequest;
 import com.collabsphere.entity.ClassRoom;
 import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
-import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.security.CurrentUser;
 import com.collabsphere.service.ClassRoomService;
+import com.collabsphere.service.MessageArchiveService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -26,17 +26,13 @@ public class AdminController {
     private ClassRoomService classRoomService;
 
     @Autowired
-    private UserRepository userRepository;
+    private MessageArchiveService messageArchiveService;
 
     @PostMapping("/classes")
     public ResponseEntity<ApiResponse<ClassRoom>> createClass(
             @Valid @RequestBody CreateClassRequest request,
-            Authentication authentication) {
+            @CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             ClassRoom classRoom = classRoomService.createClassRoom(request, lecturer);
             return ResponseEntity.ok(ApiResponse.success("Classroom created successfully", classRoom));
         } catch (Exception e) {
@@ -59,12 +55,8 @@ public class AdminController {
     }
 
     @GetMapping("/classes")
-    public ResponseEntity<ApiResponse<List<ClassRoom>>> getMyClasses(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<ClassRoom>>> getMyClasses(@CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<ClassRoom> classRooms = classRoomService.getClassRoomsByLecturer(lecturer);
             return ResponseEntity.ok(ApiResponse.success("Classes retrieved successfully", classRooms));
         } catch (Exception e) {
@@ -109,4 +101,17 @@ public class AdminController {
                 .body(ApiResponse.error("Failed to get classroom: " + e.getMessage()));
         }
     }
+
+    // Archive chat messages older than the given age now instead of waiting for the nightly job
+    @PostMapping("/chat/archive")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ApiResponse<Integer>> archiveChatMessages(@RequestParam int olderThanDays) {
+        try {
+            int archived = messageArchiveService.archiveOlderThan(LocalDateTime.now().minusDays(olderThanDays));
+            return ResponseEntity.ok(ApiResponse.success("Chat messages archived successfully", archived));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to archive chat messages: " + e.getMessage()));
+        }
+    }
 }
\ No newline at end of file
@@ -5,16 +5,21 @@ import com.collabsphere.entity.User;
 import com.collabsphere.entity.enums.UserRole;
 import com.collabsphere.repository.UserRepository;
 import com.collabsphere.security.JwtUtils;
+import com.collabsphere.security.UserPrincipal;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
@@ -31,8 +36,21 @@ public class AuthController {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
     @PostMapping("/login")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<ApiResponse<AuthResponse>>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        // BCrypt runs on the bounded hashing pool; reject instead of queueing without limit
+        try {
+            return CompletableFuture.supplyAsync(() -> authenticate(loginRequest), passwordHashingExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(ApiResponse.error("Too many login attempts, please try again shortly")));
+        }
+    }
+
+    private ResponseEntity<ApiResponse<AuthResponse>> authenticate(LoginRequest loginRequest) {
         try {
             Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
@@ -41,12 +59,17 @@ public class AuthController {
                 )
             );
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
             String jwt = jwtUtils.generateJwtToken(authentication);
 
             User user = userRepository.findByEmail(loginRequest.getEmail())
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+            // Move the stored hash to the currently calibrated cost
+            if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+                user.setPassword(passwordEncoder.encode(loginRequest.getPassword()));
+                userRepository.save(user);
+            }
+
             AuthResponse authResponse = new AuthResponse(
                 jwt,
                 user.getId(),
@@ -92,7 +115,7 @@ public class AuthController {
             User savedUser = userRepository.save(user);
 
             // Generate JWT token
-            String jwt = jwtUtils.generateJwtToken(savedUser.getEmail());
+            String jwt = jwtUtils.generateJwtToken(UserPrincipal.create(savedUser));
 
             AuthResponse authResponse = new AuthResponse(
                 jwt,
@@ -1,21 +1,33 @@
 package com.collabsphere.controller;
 
 import com.collabsphere.dto.ApiResponse;
+import com.collabsphere.dto.ChatMessagePage;
 import com.collabsphere.dto.ChatMessageRequest;
 import com.collabsphere.dto.ChatMessageResponse;
-import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
+import com.collabsphere.dto.ChatSearchPage;
+import com.collabsphere.dto.ChatSyncResponse;
+import com.collabsphere.dto.UnreadCount;
+import com.collabsphere.security.CurrentUser;
+import com.collabsphere.security.StompAuthChannelInterceptor;
 import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.service.ChatExportService;
 import com.collabsphere.service.ChatService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
-import org.springframework.security.core.Authentication;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.security.access.prepost.PreAuthorize;
 
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -27,18 +39,22 @@ public class ChatController {
     private ChatService chatService;
 
     @Autowired
-    private UserRepository userRepository;
+    private ChatExportService chatExportService;
 
     // WebSocket endpoint for real-time chat
     @MessageMapping("/chat/{teamId}")
     @SendTo("/topic/team/{teamId}")
-    public ChatMessageResponse sendMessage(@DestinationVariable Long teamId, ChatMessageRequest message) {
+    public ChatMessageResponse sendMessage(@DestinationVariable Long teamId, ChatMessageRequest message,
+                                           SimpMessageHeaderAccessor headerAccessor) {
         try {
-            // Set team ID from path variable
+            // Set team ID from path variable and sender from the authenticated session
+            UserPrincipal sender = StompAuthChannelInterceptor.getUserPrincipal(headerAccessor.getUser());
+            String teamName = StompAuthChannelInterceptor.getAuthorizedTeamName(
+                headerAccessor.getSessionAttributes(), teamId);
             message.setTeamId(teamId);
             
             // Save message to database and return response
-            return chatService.sendMessage(message);
+            return chatService.sendMessage(message, sender, teamName);
         } catch (Exception e) {
             // Handle error - in real implementation, you might want to send error to specific user
             throw new RuntimeException("Failed to send message: " + e.getMessage());
@@ -50,12 +66,8 @@ public class ChatController {
     @ResponseBody
     public ResponseEntity<ApiResponse<List<ChatMessageResponse>>> getTeamMessages(
             @PathVariable Long teamId,
-            Authentication authentication) {
+            @CurrentUser UserPrincipal user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<ChatMessageResponse> messages = chatService.getTeamMessages(teamId, user);
             return ResponseEntity.ok(ApiResponse.success("Messages retrieved successfully", messages));
         } catch (Exception e) {
@@ -64,18 +76,118 @@ public class ChatController {
         }
     }
 
+    // REST endpoint to page through chat history with before/after cursors
+    @GetMapping("/api/teams/{teamId}/messages/page")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<ChatMessagePage>> getTeamMessagePage(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit,
+            @CurrentUser UserPrincipal user) {
+        try {
+            ChatMessagePage page = chatService.getTeamMessagePage(teamId, user, before, after, limit);
+            return ResponseEntity.ok(ApiResponse.success("Messages retrieved successfully", page));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get messages: " + e.getMessage()));
+        }
+    }
+
+    // REST endpoint for reconnecting clients to fetch everything after their last sequence number
+    @GetMapping("/api/teams/{teamId}/messages/sync")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<ChatSyncResponse>> syncMessages(
+            @PathVariable Long teamId,
+            @RequestParam(defaultValue = "0") long afterSeq,
+            @RequestParam(required = false) Integer limit,
+            @CurrentUser UserPrincipal user) {
+        try {
+            ChatSyncResponse sync = chatService.syncMessages(teamId, user, afterSeq, limit);
+            return ResponseEntity.ok(ApiResponse.success("Messages synced successfully", sync));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to sync messages: " + e.getMessage()));
+        }
+    }
+
+    // REST endpoint for ranked full-text search in a team's chat
+    @GetMapping("/api/teams/{teamId}/messages/search")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<ChatSearchPage>> searchMessages(
+            @PathVariable Long teamId,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @CurrentUser UserPrincipal user) {
+        try {
+            ChatSearchPage results = chatService.searchMessages(teamId, user, q, page, size);
+            return ResponseEntity.ok(ApiResponse.success("Messages searched successfully", results));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to search messages: " + e.getMessage()));
+        }
+    }
+
+    // REST endpoint to move the caller's read cursor; without seq the whole chat is marked read
+    @PostMapping("/api/teams/{teamId}/messages/read")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<UnreadCount>> markRead(
+            @PathVariable Long teamId,
+            @RequestParam(required = false) Long seq,
+            @CurrentUser UserPrincipal user) {
+        try {
+            UnreadCount unread = chatService.markRead(teamId, user, seq);
+            return ResponseEntity.ok(ApiResponse.success("Messages marked as read", unread));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to mark messages as read: " + e.getMessage()));
+        }
+    }
+
+    // REST endpoint for the unread badge of every team of the caller
+    @GetMapping("/api/unread")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<List<UnreadCount>>> getUnreadCounts(@CurrentUser UserPrincipal user) {
+        try {
+            List<UnreadCount> counts = chatService.getUnreadCounts(user);
+            return ResponseEntity.ok(ApiResponse.success("Unread counts retrieved successfully", counts));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get unread counts: " + e.getMessage()));
+        }
+    }
+
+    // REST endpoint streaming a team's whole chat as NDJSON or CSV
+    @GetMapping("/api/teams/{teamId}/messages/export")
+    @PreAuthorize("hasRole('LECTURER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportMessages(
+            @PathVariable Long teamId,
+            @RequestParam(defaultValue = ChatExportService.NDJSON) String format) {
+        // The body is written after this method returns, so problems must surface here
+        try {
+            chatExportService.checkExport(teamId, format);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Failed to export messages: " + e.getMessage());
+        }
+
+        boolean csv = ChatExportService.CSV.equals(format);
+        StreamingResponseBody body = out -> chatExportService.exportMessages(teamId, format, out);
+        return ResponseEntity.ok()
+            .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.APPLICATION_NDJSON)
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"team-" + teamId + "-chat." + format + "\"")
+            .body(body);
+    }
+
     // REST endpoint to get recent messages since a timestamp
     @GetMapping("/api/teams/{teamId}/messages/since")
     @ResponseBody
     public ResponseEntity<ApiResponse<List<ChatMessageResponse>>> getRecentMessages(
             @PathVariable Long teamId,
             @RequestParam String since,
-            Authentication authentication) {
+            @CurrentUser UserPrincipal user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             LocalDateTime sinceDateTime = LocalDateTime.parse(since);
             List<ChatMessageResponse> messages = chatService.getRecentMessages(teamId, user, sinceDateTime);
             return ResponseEntity.ok(ApiResponse.success("Recent messages retrieved successfully", messages));
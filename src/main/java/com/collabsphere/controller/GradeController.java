@@ -5,14 +5,12 @@ import com.collabsphere.dto.CreateSubmissionRequest;
 import com.collabsphere.dto.GradeSubmissionRequest;
 import com.collabsphere.entity.Submission;
 import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
-import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.security.CurrentUser;
 import com.collabsphere.service.SubmissionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,18 +23,11 @@ public class GradeController {
     @Autowired
     private SubmissionService submissionService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
     public ResponseEntity<ApiResponse<Submission>> createSubmission(
             @Valid @RequestBody CreateSubmissionRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Submission submission = submissionService.createSubmission(request, user);
             return ResponseEntity.ok(ApiResponse.success("Submission created successfully", submission));
         } catch (Exception e) {
@@ -49,12 +40,8 @@ public class GradeController {
     @PreAuthorize("hasRole('ADMIN') or hasRole('LECTURER')")
     public ResponseEntity<ApiResponse<Submission>> gradeSubmission(
             @Valid @RequestBody GradeSubmissionRequest request,
-            Authentication authentication) {
+            @CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Submission submission = submissionService.gradeSubmission(request, lecturer);
             return ResponseEntity.ok(ApiResponse.success("Submission graded successfully", submission));
         } catch (Exception e) {
@@ -66,12 +53,8 @@ public class GradeController {
     @GetMapping("/milestone/{milestoneId}")
     public ResponseEntity<ApiResponse<List<Submission>>> getSubmissionsByMilestone(
             @PathVariable Long milestoneId,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Submission> submissions = submissionService.getSubmissionsByMilestone(milestoneId, user);
             return ResponseEntity.ok(ApiResponse.success("Submissions retrieved successfully", submissions));
         } catch (Exception e) {
@@ -83,12 +66,8 @@ public class GradeController {
     @GetMapping("/team/{teamId}")
     public ResponseEntity<ApiResponse<List<Submission>>> getSubmissionsByTeam(
             @PathVariable Long teamId,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Submission> submissions = submissionService.getSubmissionsByTeam(teamId, user);
             return ResponseEntity.ok(ApiResponse.success("Team submissions retrieved successfully", submissions));
         } catch (Exception e) {
@@ -101,12 +80,8 @@ public class GradeController {
     public ResponseEntity<ApiResponse<Submission>> getSubmissionByMilestoneAndTeam(
             @PathVariable Long milestoneId,
             @PathVariable Long teamId,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Optional<Submission> submission = submissionService.getSubmissionByMilestoneAndTeam(milestoneId, teamId, user);
             if (submission.isPresent()) {
                 return ResponseEntity.ok(ApiResponse.success("Submission retrieved successfully", submission.get()));
@@ -122,12 +97,8 @@ public class GradeController {
     @GetMapping("/ungraded")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LECTURER')")
     public ResponseEntity<ApiResponse<List<Submission>>> getUngradedSubmissions(
-            Authentication authentication) {
+            @CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Submission> submissions = submissionService.getUngradedSubmissions(lecturer);
             return ResponseEntity.ok(ApiResponse.success("Ungraded submissions retrieved successfully", submissions));
         } catch (Exception e) {
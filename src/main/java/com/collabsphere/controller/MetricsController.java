@@ -0,0 +1,121 @@
+package com.collabsphere.controller;
+
+import com.collabsphere.config.WebSocketSessionMonitor;
+import com.collabsphere.dto.ApiResponse;
+import com.collabsphere.security.AdaptiveBCryptPasswordEncoder;
+import com.collabsphere.security.JwtTokenCache;
+import com.collabsphere.security.StompRateLimitInterceptor;
+import com.collabsphere.security.TokenRevocationRegistry;
+import com.collabsphere.service.ChatSearchIndex;
+import com.collabsphere.service.LiveWhiteboardCache;
+import com.collabsphere.service.MessageArchiveService;
+import com.collabsphere.service.MessageWriteBehindQueue;
+import com.collabsphere.service.PresenceService;
+import com.collabsphere.service.ReadCursorService;
+import com.collabsphere.service.RecentMessageCache;
+import com.collabsphere.service.TeamMembershipIndex;
+import com.collabsphere.service.WhiteboardBroadcaster;
+import com.collabsphere.service.WhiteboardOpLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private StompRateLimitInterceptor stompRateLimitInterceptor;
+
+    @Autowired
+    private ThreadPoolTaskExecutor passwordHashingExecutor;
+
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ReadCursorService readCursorService;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private WhiteboardOpLog whiteboardOpLog;
+
+    @Autowired
+    private WhiteboardBroadcaster whiteboardBroadcaster;
+
+    @Autowired
+    private LiveWhiteboardCache liveWhiteboardCache;
+
+    @Autowired
+    private WebSocketSessionMonitor webSocketSessionMonitor;
+
+    @Autowired
+    private WebSocketMessageBrokerStats webSocketMessageBrokerStats;
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("jwtTokenCache", jwtTokenCache.getStats());
+        metrics.put("revokedUsers", tokenRevocationRegistry.size());
+        metrics.put("indexedTeamMembers", teamMembershipIndex.size());
+
+        Map<String, Object> passwordHashing = new LinkedHashMap<>();
+        if (passwordEncoder instanceof AdaptiveBCryptPasswordEncoder adaptiveEncoder) {
+            passwordHashing.putAll(adaptiveEncoder.getStats());
+        }
+        passwordHashing.put("activeThreads", passwordHashingExecutor.getActiveCount());
+        passwordHashing.put("queueDepth", passwordHashingExecutor.getQueueSize());
+        metrics.put("passwordHashing", passwordHashing);
+        metrics.put("stompRateLimit", stompRateLimitInterceptor.getStats());
+        metrics.put("chatWriteBehind", messageWriteBehindQueue.getStats());
+        metrics.put("chatMessageCache", recentMessageCache.getStats());
+        metrics.put("chatSearchIndex", chatSearchIndex.getStats());
+        metrics.put("chatReadCursors", readCursorService.getStats());
+        metrics.put("presence", presenceService.getStats());
+        metrics.put("chatArchive", messageArchiveService.getStats());
+        metrics.put("whiteboardOpLog", whiteboardOpLog.getStats());
+        metrics.put("whiteboardBroadcast", whiteboardBroadcaster.getStats());
+        metrics.put("whiteboardLive", liveWhiteboardCache.getStats());
+
+        Map<String, Object> webSocket = new LinkedHashMap<>(webSocketSessionMonitor.getStats());
+        webSocket.put("sessionStats", webSocketMessageBrokerStats.getWebSocketSessionStatsInfo());
+        webSocket.put("inboundExecutor", webSocketMessageBrokerStats.getClientInboundExecutorStatsInfo());
+        webSocket.put("outboundExecutor", webSocketMessageBrokerStats.getClientOutboundExecutorStatsInfo());
+        metrics.put("webSocket", webSocket);
+
+        return ResponseEntity.ok(ApiResponse.success("Metrics retrieved successfully", metrics));
+    }
+}
@@ -0,0 +1,45 @@
+package com.collabsphere.controller;
+
+import com.collabsphere.dto.ApiResponse;
+import com.collabsphere.dto.PresenceState;
+import com.collabsphere.dto.TypingRequest;
+import com.collabsphere.security.CurrentUser;
+import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.service.PresenceService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+
+    @Autowired
+    private PresenceService presenceService;
+
+    // WebSocket endpoint for typing signals; changes go out on /topic/team/{teamId}/presence
+    @MessageMapping("/team/{teamId}/typing")
+    public void typing(@DestinationVariable Long teamId, TypingRequest request,
+                       SimpMessageHeaderAccessor headerAccessor) {
+        presenceService.typing(headerAccessor.getSessionId(), teamId, request.isTyping());
+    }
+
+    // REST endpoint for the current presence of a team, before applying broadcast changes
+    @GetMapping("/teams/{teamId}")
+    public ResponseEntity<ApiResponse<List<PresenceState>>> getPresence(
+            @PathVariable Long teamId,
+            @CurrentUser UserPrincipal user) {
+        try {
+            List<PresenceState> presence = presenceService.getPresence(teamId, user);
+            return ResponseEntity.ok(ApiResponse.success("Presence retrieved successfully", presence));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get presence: " + e.getMessage()));
+        }
+    }
+}
@@ -6,14 +6,12 @@ import com.collabsphere.dto.CreateProjectRequest;
 import com.collabsphere.entity.Milestone;
 import com.collabsphere.entity.Project;
 import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
-import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.security.CurrentUser;
 import com.collabsphere.service.ProjectService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,19 +23,12 @@ public class ProjectController {
     @Autowired
     private ProjectService projectService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('LECTURER')")
     public ResponseEntity<ApiResponse<Project>> createProject(
             @Valid @RequestBody CreateProjectRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Project project = projectService.createProject(request, user);
             return ResponseEntity.ok(ApiResponse.success("Project created successfully", project));
         } catch (Exception e) {
@@ -51,12 +42,8 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<Milestone>> createMilestone(
             @PathVariable Long id,
             @Valid @RequestBody CreateMilestoneRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Milestone milestone = projectService.createMilestone(id, request, user);
             return ResponseEntity.ok(ApiResponse.success("Milestone created successfully", milestone));
         } catch (Exception e) {
@@ -78,12 +65,8 @@ public class ProjectController {
 
     @GetMapping("/my")
     @PreAuthorize("hasRole('LECTURER')")
-    public ResponseEntity<ApiResponse<List<Project>>> getMyProjects(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<Project>>> getMyProjects(@CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Project> projects = projectService.getProjectsByLecturer(lecturer);
             return ResponseEntity.ok(ApiResponse.success("Projects retrieved successfully", projects));
         } catch (Exception e) {
@@ -142,12 +125,8 @@ public class ProjectController {
     @PreAuthorize("hasRole('LECTURER')")
     public ResponseEntity<ApiResponse<Project>> submitProject(
             @PathVariable Long id,
-            Authentication authentication) {
+            @CurrentUser User lecturer) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User lecturer = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Project project = projectService.submitProject(id, lecturer);
             return ResponseEntity.ok(ApiResponse.success("Project submitted for approval", project));
         } catch (Exception e) {
@@ -161,12 +140,8 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<Project>> approveProject(
             @PathVariable Long id,
             @RequestParam(required = false) String comment,
-            Authentication authentication) {
+            @CurrentUser User approver) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User approver = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Project project = projectService.approveProject(id, approver, comment);
             return ResponseEntity.ok(ApiResponse.success("Project approved successfully", project));
         } catch (Exception e) {
@@ -180,12 +155,8 @@ public class ProjectController {
     public ResponseEntity<ApiResponse<Project>> rejectProject(
             @PathVariable Long id,
             @RequestParam(required = false) String reason,
-            Authentication authentication) {
+            @CurrentUser User rejector) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User rejector = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Project project = projectService.rejectProject(id, rejector, reason);
             return ResponseEntity.ok(ApiResponse.success("Project rejected", project));
         } catch (Exception e) {
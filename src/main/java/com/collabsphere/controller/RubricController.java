@@ -5,14 +5,12 @@ import com.collabsphere.entity.Rubric;
 import com.collabsphere.entity.RubricCriteria;
 import com.collabsphere.entity.RubricScore;
 import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
-import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.security.CurrentUser;
 import com.collabsphere.service.RubricService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -25,19 +23,12 @@ public class RubricController {
     @Autowired
     private RubricService rubricService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping
     @PreAuthorize("hasRole('LECTURER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Rubric>> createRubric(
             @Valid @RequestBody CreateRubricRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Rubric rubric = rubricService.createRubric(request, user);
             return ResponseEntity.ok(ApiResponse.success("Rubric created successfully", rubric));
         } catch (Exception e) {
@@ -51,12 +42,8 @@ public class RubricController {
     public ResponseEntity<ApiResponse<RubricCriteria>> addCriteria(
             @PathVariable Long rubricId,
             @Valid @RequestBody CreateCriteriaRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             RubricCriteria criteria = rubricService.addCriteria(rubricId, request, user);
             return ResponseEntity.ok(ApiResponse.success("Criteria added successfully", criteria));
         } catch (Exception e) {
@@ -69,12 +56,8 @@ public class RubricController {
     @PreAuthorize("hasRole('LECTURER') or hasRole('ADMIN')")
     public ResponseEntity<ApiResponse<Map<String, Object>>> gradeWithRubric(
             @Valid @RequestBody RubricGradeRequest request,
-            Authentication authentication) {
+            @CurrentUser User grader) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User grader = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             Map<String, Object> result = rubricService.gradeTeamWithRubric(request, grader);
             return ResponseEntity.ok(ApiResponse.success("Team graded successfully", result));
         } catch (Exception e) {
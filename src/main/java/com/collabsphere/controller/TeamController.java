@@ -4,14 +4,12 @@ import com.collabsphere.dto.ApiResponse;
 import com.collabsphere.dto.AutoGenerateTeamsRequest;
 import com.collabsphere.entity.Team;
 import com.collabsphere.entity.User;
-import com.collabsphere.repository.UserRepository;
-import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.security.CurrentUser;
 import com.collabsphere.service.TeamService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -23,19 +21,12 @@ public class TeamController {
     @Autowired
     private TeamService teamService;
 
-    @Autowired
-    private UserRepository userRepository;
-
     @PostMapping("/auto-generate")
     @PreAuthorize("hasRole('ADMIN') or hasRole('LECTURER')")
     public ResponseEntity<ApiResponse<List<Team>>> autoGenerateTeams(
             @Valid @RequestBody AutoGenerateTeamsRequest request,
-            Authentication authentication) {
+            @CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
             List<Team> teams = teamService.autoGenerateTeams(request, user);
             return ResponseEntity.ok(ApiResponse.success(
                 "Teams generated successfully. Created " + teams.size() + " teams.", teams));
@@ -57,10 +48,9 @@ public class TeamController {
     }
 
     @GetMapping("/my")
-    public ResponseEntity<ApiResponse<List<Team>>> getMyTeams(Authentication authentication) {
+    public ResponseEntity<ApiResponse<List<Team>>> getMyTeams(@CurrentUser User user) {
         try {
-            UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-            List<Team> teams = teamService.getTeamsByUser(userPrincipal.getId());
+            List<Team> teams = teamService.getTeamsByUser(user.getId());
             return ResponseEntity.ok(ApiResponse.success("Teams retrieved successfully", teams));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
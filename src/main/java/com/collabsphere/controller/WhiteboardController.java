@@ -1,29 +1,56 @@
 package com.collabsphere.controller;
 
 import com.collabsphere.dto.ApiResponse;
-import com.collabsphere.entity.WhiteboardData;
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.dto.WhiteboardState;
+import com.collabsphere.dto.WhiteboardTiles;
+import com.collabsphere.security.CurrentUser;
+import com.collabsphere.security.StompAuthChannelInterceptor;
+import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.service.WhiteboardBinaryCodec;
+import com.collabsphere.service.WhiteboardBroadcaster;
+import com.collabsphere.service.TeamMembershipIndex;
 import com.collabsphere.service.WhiteboardService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+
 @Controller
 public class WhiteboardController {
 
     @Autowired
     private WhiteboardService whiteboardService;
 
+    @Autowired
+    private WhiteboardBroadcaster whiteboardBroadcaster;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping("/api/whiteboards/{teamId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('LECTURER') or hasRole('ADMIN')")
     @ResponseBody
-    public ResponseEntity<ApiResponse<WhiteboardData>> getWhiteboardData(@PathVariable Long teamId) {
+    public ResponseEntity<ApiResponse<WhiteboardState>> getWhiteboardData(@PathVariable Long teamId,
+                                                                          @CurrentUser UserPrincipal user) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, teamId)) {
+            return forbidden();
+        }
         try {
-            WhiteboardData data = whiteboardService.getWhiteboardData(teamId);
+            WhiteboardState data = whiteboardService.getWhiteboardData(teamId);
             return ResponseEntity.ok(ApiResponse.success("Whiteboard data retrieved", data));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -31,14 +58,39 @@ public class WhiteboardController {
         }
     }
 
+    // Only the strokes in a viewport, tile by tile; tiles the client already has at version since come without them
+    @GetMapping("/api/whiteboards/{teamId}/tiles")
+    @PreAuthorize("hasRole('STUDENT') or hasRole('LECTURER') or hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<ApiResponse<WhiteboardTiles>> getWhiteboardTiles(
+            @PathVariable Long teamId,
+            @RequestParam String bbox,
+            @RequestParam(defaultValue = "0") long since,
+            @CurrentUser UserPrincipal user) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, teamId)) {
+            return forbidden();
+        }
+        try {
+            WhiteboardTiles tiles = whiteboardService.getWhiteboardTiles(teamId, bbox, since);
+            return ResponseEntity.ok(ApiResponse.success("Whiteboard tiles retrieved", tiles));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                .body(ApiResponse.error("Failed to get whiteboard tiles: " + e.getMessage()));
+        }
+    }
+
     @PostMapping("/api/whiteboards/{teamId}")
     @PreAuthorize("hasRole('STUDENT') or hasRole('LECTURER') or hasRole('ADMIN')")
     @ResponseBody
-    public ResponseEntity<ApiResponse<WhiteboardData>> saveWhiteboardData(
+    public ResponseEntity<ApiResponse<WhiteboardState>> saveWhiteboardData(
             @PathVariable Long teamId,
-            @RequestBody String dataJson) {
+            @RequestBody String dataJson,
+            @CurrentUser UserPrincipal user) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, teamId)) {
+            return forbidden();
+        }
         try {
-            WhiteboardData data = whiteboardService.saveWhiteboardData(teamId, dataJson);
+            WhiteboardState data = whiteboardService.saveWhiteboardData(teamId, dataJson);
             return ResponseEntity.ok(ApiResponse.success("Whiteboard data saved", data));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -46,108 +98,33 @@ public class WhiteboardController {
         }
     }
 
-    // WebSocket endpoints for real-time whiteboard collaboration
+    // WebSocket endpoint for real-time whiteboard collaboration. A JSON frame holds one
+    // event and an application/octet-stream frame a batch of them (WhiteboardBinaryCodec);
+    // WhiteboardBroadcaster publishes them as JSON on /topic/whiteboard/{teamId} and as
+    // binary on .../binary
     @MessageMapping("/whiteboard/{teamId}")
-    @SendTo("/topic/whiteboard/{teamId}")
-    public WhiteboardDrawEvent handleWhiteboardDraw(
-            @DestinationVariable Long teamId,
-            WhiteboardDrawEvent drawEvent) {
+    public void handleWhiteboardDraw(@DestinationVariable Long teamId, @Payload byte[] payload,
+                                     SimpMessageHeaderAccessor headerAccessor) {
+        // Team membership is checked by StompAuthChannelInterceptor
+        UserPrincipal sender = StompAuthChannelInterceptor.getUserPrincipal(headerAccessor.getUser());
+        List<WhiteboardDrawEvent> events;
         try {
-            // Validate team membership here if needed
-            drawEvent.setTimestamp(System.currentTimeMillis());
-            return drawEvent;
-        } catch (Exception e) {
-            // Log error
-            return null;
-        }
+            events = WhiteboardBinaryCodec.isBinary(headerAccessor.getContentType())
+                ? WhiteboardBinaryCodec.decode(payload)
+                : List.of(objectMapper.readValue(payload, WhiteboardDrawEvent.class));
+        } catch (IllegalArgumentException | IOException e) {
+            // Malformed frames are dropped; op log, database and broker failures propagate
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (WhiteboardDrawEvent event : events) {
+            event.setTimestamp(now);
+        }
+        whiteboardBroadcaster.submit(teamId, sender != null ? sender.getId() : null, events);
     }
 
-    // DTO for whiteboard draw events
-    public static class WhiteboardDrawEvent {
-        private String type; // "draw", "erase", "clear"
-        private Double x;
-        private Double y;
-        private Double prevX;
-        private Double prevY;
-        private String color;
-        private Integer lineWidth;
-        private String userId;
-        private Long timestamp;
-
-        // Constructors
-        public WhiteboardDrawEvent() {}
-
-        // Getters and Setters
-        public String getType() {
-            return type;
-        }
-
-        public void setType(String type) {
-            this.type = type;
-        }
-
-        public Double getX() {
-            return x;
-        }
-
-        public void setX(Double x) {
-            this.x = x;
-        }
-
-        public Double getY() {
-            return y;
-        }
-
-        public void setY(Double y) {
-            this.y = y;
-        }
-
-        public Double getPrevX() {
-            return prevX;
-        }
-
-        public void setPrevX(Double prevX) {
-            this.prevX = prevX;
-        }
-
-        public Double getPrevY() {
-            return prevY;
-        }
-
-        public void setPrevY(Double prevY) {
-            this.prevY = prevY;
-        }
-
-        public String getColor() {
-            return color;
-        }
-
-        public void setColor(String color) {
-            this.color = color;
-        }
-
-        public Integer getLineWidth() {
-            return lineWidth;
-        }
-
-        public void setLineWidth(Integer lineWidth) {
-            this.lineWidth = lineWidth;
-        }
-
-        public String getUserId() {
-            return userId;
-        }
-
-        public void setUserId(String userId) {
-            this.userId = userId;
-        }
-
-        public Long getTimestamp() {
-            return timestamp;
-        }
-
-        public void setTimestamp(Long timestamp) {
-            this.timestamp = timestamp;
-        }
+    private static <T> ResponseEntity<ApiResponse<T>> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+            .body(ApiResponse.error("You are not a member of this team"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,83 @@
+package com.collabsphere.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of chat history in ascending order. The cursors point at the first
+ * and last message of the page and are passed back as "before"/"after".
+ */
+public class ChatMessagePage {
+    private List<ChatMessageResponse> messages;
+    private String beforeCursor;
+    private String afterCursor;
+    private boolean hasMore;
+
+    public ChatMessagePage() {}
+
+    public ChatMessagePage(List<ChatMessageResponse> messages, boolean hasMore) {
+        this.messages = messages;
+        this.hasMore = hasMore;
+        if (!messages.isEmpty()) {
+            ChatMessageResponse first = messages.get(0);
+            ChatMessageResponse last = messages.get(messages.size() - 1);
+            this.beforeCursor = encodeCursor(first.getTimestamp(), first.getId());
+            this.afterCursor = encodeCursor(last.getTimestamp(), last.getId());
+        }
+    }
+
+    public static String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the (timestamp, id) pair encoded in the cursor
+     */
+    public static Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
+    public record Cursor(LocalDateTime timestamp, Long id) {}
+
+    public List<ChatMessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public String getBeforeCursor() {
+        return beforeCursor;
+    }
+
+    public void setBeforeCursor(String beforeCursor) {
+        this.beforeCursor = beforeCursor;
+    }
+
+    public String getAfterCursor() {
+        return afterCursor;
+    }
+
+    public void setAfterCursor(String afterCursor) {
+        this.afterCursor = afterCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
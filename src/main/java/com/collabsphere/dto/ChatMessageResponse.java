@@ -10,6 +10,7 @@ public class ChatMessageResponse {
     private Long senderId;
     private String senderName;
     private LocalDateTime timestamp;
+    private Long seq;
 
     public ChatMessageResponse() {}
 
@@ -24,6 +25,12 @@ public class ChatMessageResponse {
         this.timestamp = timestamp;
     }
 
+    public ChatMessageResponse(Long id, String content, Long teamId, String teamName, 
+                              Long senderId, String senderName, LocalDateTime timestamp, Long seq) {
+        this(id, content, teamId, teamName, senderId, senderName, timestamp);
+        this.seq = seq;
+    }
+
     public Long getId() {
         return id;
     }
@@ -79,4 +86,12 @@ public class ChatMessageResponse {
     public void setTimestamp(LocalDateTime timestamp) {
         this.timestamp = timestamp;
     }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
 }
\ No newline at end of file
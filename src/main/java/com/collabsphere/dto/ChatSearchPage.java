@@ -0,0 +1,54 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * One page of chat search hits, best match first.
+ */
+public class ChatSearchPage {
+    private List<ChatMessageResponse> messages;
+    private int total;
+    private int page;
+    private int size;
+
+    public ChatSearchPage() {}
+
+    public ChatSearchPage(List<ChatMessageResponse> messages, int total, int page, int size) {
+        this.messages = messages;
+        this.total = total;
+        this.page = page;
+        this.size = size;
+    }
+
+    public List<ChatMessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
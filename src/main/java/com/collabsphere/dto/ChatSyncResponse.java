@@ -0,0 +1,55 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * Messages after a client's last seen sequence number. {@code head} is the
+ * team's committed sequence; clients resume from {@code nextAfterSeq}.
+ */
+public class ChatSyncResponse {
+    private List<ChatMessageResponse> messages;
+    private long head;
+    private long nextAfterSeq;
+    private boolean hasMore;
+
+    public ChatSyncResponse() {}
+
+    public ChatSyncResponse(List<ChatMessageResponse> messages, long head, long nextAfterSeq, boolean hasMore) {
+        this.messages = messages;
+        this.head = head;
+        this.nextAfterSeq = nextAfterSeq;
+        this.hasMore = hasMore;
+    }
+
+    public List<ChatMessageResponse> getMessages() {
+        return messages;
+    }
+
+    public void setMessages(List<ChatMessageResponse> messages) {
+        this.messages = messages;
+    }
+
+    public long getHead() {
+        return head;
+    }
+
+    public void setHead(long head) {
+        this.head = head;
+    }
+
+    public long getNextAfterSeq() {
+        return nextAfterSeq;
+    }
+
+    public void setNextAfterSeq(long nextAfterSeq) {
+        this.nextAfterSeq = nextAfterSeq;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
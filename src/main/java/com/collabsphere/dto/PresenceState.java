@@ -0,0 +1,52 @@
+package com.collabsphere.dto;
+
+/**
+ * Whether a user is connected to, and typing in, a team.
+ */
+public class PresenceState {
+    private Long userId;
+    private String fullName;
+    private boolean online;
+    private boolean typing;
+
+    public PresenceState() {}
+
+    public PresenceState(Long userId, String fullName, boolean online, boolean typing) {
+        this.userId = userId;
+        this.fullName = fullName;
+        this.online = online;
+        this.typing = typing;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public void setFullName(String fullName) {
+        this.fullName = fullName;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    public void setOnline(boolean online) {
+        this.online = online;
+    }
+
+    public boolean isTyping() {
+        return typing;
+    }
+
+    public void setTyping(boolean typing) {
+        this.typing = typing;
+    }
+}
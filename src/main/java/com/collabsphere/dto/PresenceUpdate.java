@@ -0,0 +1,34 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * Presence changes of one team since the previous broadcast tick.
+ */
+public class PresenceUpdate {
+    private Long teamId;
+    private List<PresenceState> changes;
+
+    public PresenceUpdate() {}
+
+    public PresenceUpdate(Long teamId, List<PresenceState> changes) {
+        this.teamId = teamId;
+        this.changes = changes;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public List<PresenceState> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<PresenceState> changes) {
+        this.changes = changes;
+    }
+}
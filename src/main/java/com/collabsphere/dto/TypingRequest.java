@@ -0,0 +1,15 @@
+package com.collabsphere.dto;
+
+public class TypingRequest {
+    private boolean typing = true;
+
+    public TypingRequest() {}
+
+    public boolean isTyping() {
+        return typing;
+    }
+
+    public void setTyping(boolean typing) {
+        this.typing = typing;
+    }
+}
@@ -0,0 +1,45 @@
+package com.collabsphere.dto;
+
+/**
+ * A user's read position in one team chat. {@code unreadCount} is an upper
+ * bound on the committed messages after {@code lastReadSeq}: seqs left unused
+ * by a rolled back send or a dropped write-behind message are counted too,
+ * until the cursor moves past them.
+ */
+public class UnreadCount {
+    private Long teamId;
+    private long lastReadSeq;
+    private long unreadCount;
+
+    public UnreadCount() {}
+
+    public UnreadCount(Long teamId, long lastReadSeq, long unreadCount) {
+        this.teamId = teamId;
+        this.lastReadSeq = lastReadSeq;
+        this.unreadCount = unreadCount;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public long getLastReadSeq() {
+        return lastReadSeq;
+    }
+
+    public void setLastReadSeq(long lastReadSeq) {
+        this.lastReadSeq = lastReadSeq;
+    }
+
+    public long getUnreadCount() {
+        return unreadCount;
+    }
+
+    public void setUnreadCount(long unreadCount) {
+        this.unreadCount = unreadCount;
+    }
+}
@@ -0,0 +1,34 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * Whiteboard events of one team received during a broadcast tick, in arrival order.
+ */
+public class WhiteboardBatch {
+    private Long teamId;
+    private List<WhiteboardDrawEvent> events;
+
+    public WhiteboardBatch() {}
+
+    public WhiteboardBatch(Long teamId, List<WhiteboardDrawEvent> events) {
+        this.teamId = teamId;
+        this.events = events;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public List<WhiteboardDrawEvent> getEvents() {
+        return events;
+    }
+
+    public void setEvents(List<WhiteboardDrawEvent> events) {
+        this.events = events;
+    }
+}
@@ -0,0 +1,102 @@
+package com.collabsphere.dto;
+
+/**
+ * A draw, erase or clear operation on a team whiteboard. Logged operations
+ * carry the per-team sequence number assigned by WhiteboardOpLog.
+ */
+public class WhiteboardDrawEvent {
+    private String type; // "draw", "erase", "clear"
+    private Double x;
+    private Double y;
+    private Double prevX;
+    private Double prevY;
+    private String color;
+    private Integer lineWidth;
+    private String userId;
+    private Long timestamp;
+    private Long seq;
+
+    // Constructors
+    public WhiteboardDrawEvent() {}
+
+    // Getters and Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Double getX() {
+        return x;
+    }
+
+    public void setX(Double x) {
+        this.x = x;
+    }
+
+    public Double getY() {
+        return y;
+    }
+
+    public void setY(Double y) {
+        this.y = y;
+    }
+
+    public Double getPrevX() {
+        return prevX;
+    }
+
+    public void setPrevX(Double prevX) {
+        this.prevX = prevX;
+    }
+
+    public Double getPrevY() {
+        return prevY;
+    }
+
+    public void setPrevY(Double prevY) {
+        this.prevY = prevY;
+    }
+
+    public String getColor() {
+        return color;
+    }
+
+    public void setColor(String color) {
+        this.color = color;
+    }
+
+    public Integer getLineWidth() {
+        return lineWidth;
+    }
+
+    public void setLineWidth(Integer lineWidth) {
+        this.lineWidth = lineWidth;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public Long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,56 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * A whiteboard as a client should draw it: the saved canvas, then the
+ * operations in order. Broadcast operations with seq up to {@code seq} are
+ * already included.
+ */
+public class WhiteboardState {
+    private Long teamId;
+    private String dataJson;
+    private List<WhiteboardDrawEvent> ops;
+    private Long seq;
+
+    public WhiteboardState() {}
+
+    public WhiteboardState(Long teamId, String dataJson, List<WhiteboardDrawEvent> ops, Long seq) {
+        this.teamId = teamId;
+        this.dataJson = dataJson;
+        this.ops = ops;
+        this.seq = seq;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public String getDataJson() {
+        return dataJson;
+    }
+
+    public void setDataJson(String dataJson) {
+        this.dataJson = dataJson;
+    }
+
+    public List<WhiteboardDrawEvent> getOps() {
+        return ops;
+    }
+
+    public void setOps(List<WhiteboardDrawEvent> ops) {
+        this.ops = ops;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,57 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * One cell of a whiteboard's tile grid: column x and row y, the seq of the
+ * last operation that touched it, and its operations in seq order. An
+ * operation crossing a tile border is in every tile it touches.
+ */
+public class WhiteboardTile {
+    private int x;
+    private int y;
+    private Long version;
+    // Null when the client already has this version
+    private List<WhiteboardDrawEvent> ops;
+
+    public WhiteboardTile() {}
+
+    public WhiteboardTile(int x, int y, Long version, List<WhiteboardDrawEvent> ops) {
+        this.x = x;
+        this.y = y;
+        this.version = version;
+        this.ops = ops;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public void setX(int x) {
+        this.x = x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public void setY(int y) {
+        this.y = y;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public List<WhiteboardDrawEvent> getOps() {
+        return ops;
+    }
+
+    public void setOps(List<WhiteboardDrawEvent> ops) {
+        this.ops = ops;
+    }
+}
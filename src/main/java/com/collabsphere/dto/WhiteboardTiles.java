@@ -0,0 +1,81 @@
+package com.collabsphere.dto;
+
+import java.util.List;
+
+/**
+ * The non-empty tiles of a whiteboard region. Tiles are tileSize canvas units
+ * square; tile (x, y) covers [x * tileSize, (x + 1) * tileSize). Cached tiles
+ * stay valid while resetSeq is unchanged and their version matches; a higher
+ * resetSeq means the board was cleared, replaced or reloaded, and the canvas
+ * from GET /whiteboards/{teamId} and every cached tile must be fetched again.
+ * Operations spanning too many tiles are kept in {@code wide}, sent with every
+ * region and versioned like a tile.
+ */
+public class WhiteboardTiles {
+    private Long teamId;
+    private Long seq;
+    private Long resetSeq;
+    private int tileSize;
+    private List<WhiteboardTile> tiles;
+    private WhiteboardTile wide;
+
+    public WhiteboardTiles() {}
+
+    public WhiteboardTiles(Long teamId, Long seq, Long resetSeq, int tileSize,
+                           List<WhiteboardTile> tiles, WhiteboardTile wide) {
+        this.teamId = teamId;
+        this.seq = seq;
+        this.resetSeq = resetSeq;
+        this.tileSize = tileSize;
+        this.tiles = tiles;
+        this.wide = wide;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public Long getResetSeq() {
+        return resetSeq;
+    }
+
+    public void setResetSeq(Long resetSeq) {
+        this.resetSeq = resetSeq;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public void setTileSize(int tileSize) {
+        this.tileSize = tileSize;
+    }
+
+    public List<WhiteboardTile> getTiles() {
+        return tiles;
+    }
+
+    public void setTiles(List<WhiteboardTile> tiles) {
+        this.tiles = tiles;
+    }
+
+    public WhiteboardTile getWide() {
+        return wide;
+    }
+
+    public void setWide(WhiteboardTile wide) {
+        this.wide = wide;
+    }
+}
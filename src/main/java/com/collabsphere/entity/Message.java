@@ -5,7 +5,13 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "messages")
+@Table(name = "messages", indexes = {
+    // Keyset pagination of a team's history is one range scan on this index
+    @Index(name = "idx_messages_team_timestamp_id", columnList = "team_id, timestamp, id")
+}, uniqueConstraints = {
+    // Also serves delta sync as a range scan on (team_id, seq)
+    @UniqueConstraint(name = "uk_messages_team_seq", columnNames = {"team_id", "seq"})
+})
 public class Message {
     
     @Id
@@ -17,6 +23,9 @@ public class Message {
     
     @Column(nullable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
+
+    // Per-team sequence assigned by MessageSequencer; rows from before it existed are backfilled on startup
+    private Long seq;
     
     // Quan hệ với User (sender)
     @ManyToOne(fetch = FetchType.LAZY)
@@ -63,6 +72,14 @@ public class Message {
         this.timestamp = timestamp;
     }
 
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
     public User getSender() {
         return sender;
     }
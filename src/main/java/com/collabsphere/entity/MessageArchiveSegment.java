@@ -0,0 +1,156 @@
+package com.collabsphere.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A compressed block of archived chat messages: one team's messages with seq
+ * in [firstSeq, lastSeq], moved out of the messages table by
+ * MessageArchiveService. Segments are written once and never updated.
+ */
+@Entity
+@Table(name = "message_archive_segments", indexes = {
+    @Index(name = "idx_archive_segments_team_seq", columnList = "team_id, first_seq")
+})
+public class MessageArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    @Column(name = "first_seq", nullable = false)
+    private Long firstSeq;
+
+    @Column(name = "last_seq", nullable = false)
+    private Long lastSeq;
+
+    // Timestamp and id ranges, so reads only decompress segments that can match
+    @Column(name = "min_timestamp", nullable = false)
+    private LocalDateTime minTimestamp;
+
+    @Column(name = "max_timestamp", nullable = false)
+    private LocalDateTime maxTimestamp;
+
+    @Column(name = "min_message_id", nullable = false)
+    private Long minMessageId;
+
+    @Column(name = "max_message_id", nullable = false)
+    private Long maxMessageId;
+
+    @Column(name = "message_count", nullable = false)
+    private Integer messageCount;
+
+    @Column(name = "raw_bytes", nullable = false)
+    private Integer rawBytes;
+
+    @Lob
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] data;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public MessageArchiveSegment() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public Long getFirstSeq() {
+        return firstSeq;
+    }
+
+    public void setFirstSeq(Long firstSeq) {
+        this.firstSeq = firstSeq;
+    }
+
+    public Long getLastSeq() {
+        return lastSeq;
+    }
+
+    public void setLastSeq(Long lastSeq) {
+        this.lastSeq = lastSeq;
+    }
+
+    public LocalDateTime getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public void setMinTimestamp(LocalDateTime minTimestamp) {
+        this.minTimestamp = minTimestamp;
+    }
+
+    public Long getMinMessageId() {
+        return minMessageId;
+    }
+
+    public void setMinMessageId(Long minMessageId) {
+        this.minMessageId = minMessageId;
+    }
+
+    public LocalDateTime getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    public void setMaxTimestamp(LocalDateTime maxTimestamp) {
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    public Long getMaxMessageId() {
+        return maxMessageId;
+    }
+
+    public void setMaxMessageId(Long maxMessageId) {
+        this.maxMessageId = maxMessageId;
+    }
+
+    public Integer getMessageCount() {
+        return messageCount;
+    }
+
+    public void setMessageCount(Integer messageCount) {
+        this.messageCount = messageCount;
+    }
+
+    public Integer getRawBytes() {
+        return rawBytes;
+    }
+
+    public void setRawBytes(Integer rawBytes) {
+        this.rawBytes = rawBytes;
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public void setData(byte[] data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,77 @@
+package com.collabsphere.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A STOMP session open on some node, so every node can tell who is online.
+ * Written by PresenceService when several nodes share the database; the
+ * owning node refreshes seenAt (epoch millis) while it runs, and rows of a
+ * node that stopped doing so are pruned by the others.
+ */
+@Entity
+@Table(name = "presence_sessions", indexes = {
+    @Index(name = "idx_presence_sessions_node_session", columnList = "node_id, session_id"),
+    @Index(name = "idx_presence_sessions_user", columnList = "user_id")
+})
+public class PresenceSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "node_id", nullable = false, length = 36)
+    private String nodeId;
+
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "seen_at", nullable = false)
+    private Long seenAt;
+
+    // Constructors
+    public PresenceSession() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public void setNodeId(String nodeId) {
+        this.nodeId = nodeId;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getSeenAt() {
+        return seenAt;
+    }
+
+    public void setSeenAt(Long seenAt) {
+        this.seenAt = seenAt;
+    }
+}
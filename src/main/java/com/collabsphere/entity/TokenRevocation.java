@@ -0,0 +1,54 @@
+package com.collabsphere.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A user's tokens issued up to revokedAt (epoch millis) are no longer trusted.
+ * Written and polled by TokenRevocationRegistry when several nodes share the
+ * database, so it refers to the user by id; rows are pruned once every token
+ * they cover has expired.
+ */
+@Entity
+@Table(name = "token_revocations", indexes = {
+    @Index(name = "idx_token_revocations_revoked_at", columnList = "revoked_at")
+})
+public class TokenRevocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Long revokedAt;
+
+    // Constructors
+    public TokenRevocation() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(Long revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
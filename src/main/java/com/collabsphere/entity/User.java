@@ -1,17 +1,22 @@
 package com.collabsphere.entity;
 
 import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.security.UserSecurityListener;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserSecurityListener.class)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
     
     @Id
@@ -35,6 +40,15 @@ public class User {
     @Column(nullable = false)
     private Boolean active = true;
 
+    // Role/active as last read from or written to the database
+    @Transient
+    @JsonIgnore
+    private UserRole persistedRole;
+
+    @Transient
+    @JsonIgnore
+    private Boolean persistedActive;
+
     // Constructors
     public User() {}
 
@@ -95,6 +109,22 @@ public class User {
         this.active = active;
     }
     
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    void snapshotSecurityState() {
+        this.persistedRole = role;
+        this.persistedActive = active;
+    }
+
+    /**
+     * True when role or active flag differ from the last persisted state.
+     */
+    @JsonIgnore
+    public boolean isSecurityStateChanged() {
+        return persistedRole != role || !Objects.equals(persistedActive, active);
+    }
+    
     // Quan hệ với ClassRoom (as lecturer)
     @OneToMany(mappedBy = "lecturer", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     @JsonIgnore
@@ -2,8 +2,15 @@ package com.collabsphere.entity;
 
 import jakarta.persistence.*;
 
+/**
+ * A team's whiteboard snapshot: the canvas last saved by a client plus the
+ * logged operations folded in after it, up to lastOpSeq. Operations with a
+ * higher seq are still in whiteboard_ops.
+ */
 @Entity
-@Table(name = "whiteboard_data")
+@Table(name = "whiteboard_data", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_whiteboard_data_team", columnNames = {"team_id"})
+})
 public class WhiteboardData {
     
     @Id
@@ -17,6 +24,13 @@ public class WhiteboardData {
     @Column(columnDefinition = "TEXT")
     private String dataJson;
 
+    // JSON array of the operations folded in since dataJson was saved
+    @Column(name = "ops_json", columnDefinition = "LONGTEXT")
+    private String opsJson;
+
+    @Column(name = "last_op_seq")
+    private Long lastOpSeq;
+
     // Constructors
     public WhiteboardData() {}
 
@@ -49,4 +63,20 @@ public class WhiteboardData {
     public void setDataJson(String dataJson) {
         this.dataJson = dataJson;
     }
+
+    public String getOpsJson() {
+        return opsJson;
+    }
+
+    public void setOpsJson(String opsJson) {
+        this.opsJson = opsJson;
+    }
+
+    public Long getLastOpSeq() {
+        return lastOpSeq;
+    }
+
+    public void setLastOpSeq(Long lastOpSeq) {
+        this.lastOpSeq = lastOpSeq;
+    }
 }
\ No newline at end of file
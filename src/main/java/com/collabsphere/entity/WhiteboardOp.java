@@ -0,0 +1,89 @@
+package com.collabsphere.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One draw, erase or clear operation in a team's whiteboard log. Appended in
+ * batches by WhiteboardOpLog and deleted once folded into the WhiteboardData
+ * snapshot, so it refers to the team by id.
+ */
+@Entity
+@Table(name = "whiteboard_ops", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_whiteboard_ops_team_seq", columnNames = {"team_id", "seq"})
+})
+public class WhiteboardOp {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "team_id", nullable = false)
+    private Long teamId;
+
+    @Column(nullable = false)
+    private Long seq;
+
+    @Column(nullable = false, length = 16)
+    private String type;
+
+    // The operation as JSON, without its null fields
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    // Constructors
+    public WhiteboardOp() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(Long teamId) {
+        this.teamId = teamId;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(Long seq) {
+        this.seq = seq;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,27 @@
+package com.collabsphere.repository;
+
+import com.collabsphere.entity.MessageArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface MessageArchiveSegmentRepository extends JpaRepository<MessageArchiveSegment, Long> {
+
+    // Segment index without the data: id, firstSeq, lastSeq, minTimestamp, maxTimestamp, minMessageId,
+    // maxMessageId, messageCount
+    @Query("SELECT s.id, s.firstSeq, s.lastSeq, s.minTimestamp, s.maxTimestamp, s.minMessageId, s.maxMessageId, " +
+           "s.messageCount FROM MessageArchiveSegment s WHERE s.teamId = :teamId ORDER BY s.firstSeq ASC")
+    List<Object[]> findIndexByTeamId(@Param("teamId") Long teamId);
+
+    @Query("SELECT s.data FROM MessageArchiveSegment s WHERE s.id = :id")
+    byte[] findDataById(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM MessageArchiveSegment s WHERE s.teamId = :teamId")
+    void deleteByTeamId(@Param("teamId") Long teamId);
+}
@@ -1,15 +1,23 @@
 package com.collabsphere.repository;
 
+import com.collabsphere.dto.ChatMessageResponse;
 import com.collabsphere.entity.Message;
 import com.collabsphere.entity.Team;
 import com.collabsphere.entity.User;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Message, Long> {
@@ -34,4 +42,68 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     
     @Query("SELECT m FROM Message m WHERE m.team.id = :teamId ORDER BY m.timestamp DESC")
     List<Message> findRecentMessagesByTeam(@Param("teamId") Long teamId);
+
+    // Chat reads project straight into the response DTO: one statement, no lazy loads
+    String RESPONSE_SELECT = "SELECT new com.collabsphere.dto.ChatMessageResponse(" +
+            "m.id, m.content, t.id, t.name, s.id, s.fullName, m.timestamp, m.seq) " +
+            "FROM Message m JOIN m.team t JOIN m.sender s ";
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessageResponse> findResponsesByTeamId(@Param("teamId") Long teamId);
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId AND m.timestamp >= :since ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessageResponse> findResponsesByTeamIdSince(@Param("teamId") Long teamId,
+                                                         @Param("since") LocalDateTime since);
+
+    // Keyset pages on (timestamp, id); the Pageable only supplies the row limit
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessageResponse> findLatestPage(@Param("teamId") Long teamId, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId " +
+           "AND m.timestamp <= :timestamp AND (m.timestamp < :timestamp OR m.id < :id) " +
+           "ORDER BY m.timestamp DESC, m.id DESC")
+    List<ChatMessageResponse> findPageBefore(@Param("teamId") Long teamId, @Param("timestamp") LocalDateTime timestamp,
+                                             @Param("id") Long id, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId " +
+           "AND m.timestamp >= :timestamp AND (m.timestamp > :timestamp OR m.id > :id) " +
+           "ORDER BY m.timestamp ASC, m.id ASC")
+    List<ChatMessageResponse> findPageAfter(@Param("teamId") Long teamId, @Param("timestamp") LocalDateTime timestamp,
+                                            @Param("id") Long id, Pageable pageable);
+
+    // Delta sync: everything in (afterSeq, head], on the unique (team_id, seq) index
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId AND m.seq > :afterSeq AND m.seq <= :head ORDER BY m.seq ASC")
+    List<ChatMessageResponse> findResponsesBySeqRange(@Param("teamId") Long teamId, @Param("afterSeq") Long afterSeq,
+                                                      @Param("head") Long head, Pageable pageable);
+
+    @Query(RESPONSE_SELECT + "WHERE m.id IN :ids")
+    List<ChatMessageResponse> findResponsesByIds(@Param("ids") List<Long> ids);
+
+    // Source for building a team's search index and catching it up: (id, content, seq), oldest first
+    @Query("SELECT m.id, m.content, m.seq FROM Message m WHERE m.team.id = :teamId AND m.seq > :afterSeq " +
+           "ORDER BY m.seq")
+    List<Object[]> findIdAndContentAfterSeq(@Param("teamId") Long teamId, @Param("afterSeq") Long afterSeq);
+
+    // Export: rows are streamed from an open cursor in fetch-size chunks; close the stream when done
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId ORDER BY m.seq ASC")
+    Stream<ChatMessageResponse> streamResponsesByTeamId(@Param("teamId") Long teamId);
+
+    // Archival: teams with messages older than the cutoff, and how far each may be archived
+    @Query("SELECT DISTINCT m.team.id FROM Message m WHERE m.timestamp < :cutoff")
+    List<Long> findTeamIdsWithMessagesBefore(@Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT MAX(m.seq) FROM Message m WHERE m.team.id = :teamId AND m.timestamp < :cutoff")
+    Long findMaxSeqBefore(@Param("teamId") Long teamId, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT MAX(m.seq) FROM Message m WHERE m.team.id = :teamId")
+    Long findMaxSeq(@Param("teamId") Long teamId);
+
+    @Query(RESPONSE_SELECT + "WHERE t.id = :teamId AND m.seq <= :throughSeq ORDER BY m.seq ASC")
+    List<ChatMessageResponse> findOldestThroughSeq(@Param("teamId") Long teamId, @Param("throughSeq") Long throughSeq,
+                                                   Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Message m WHERE m.id IN :ids")
+    void deleteByIds(@Param("ids") List<Long> ids);
 }
\ No newline at end of file
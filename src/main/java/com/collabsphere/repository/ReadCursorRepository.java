@@ -0,0 +1,22 @@
+package com.collabsphere.repository;
+
+import com.collabsphere.entity.ReadCursor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReadCursorRepository extends JpaRepository<ReadCursor, Long> {
+
+    // (teamId, lastReadSeq) pairs of one user
+    @Query("SELECT c.teamId, c.lastReadSeq FROM ReadCursor c WHERE c.userId = :userId")
+    List<Object[]> findSeqsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM ReadCursor c WHERE c.teamId = :teamId")
+    void deleteByTeamId(@Param("teamId") Long teamId);
+}
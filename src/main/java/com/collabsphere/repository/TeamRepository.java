@@ -9,6 +9,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TeamRepository extends JpaRepository<Team, Long> {
@@ -20,6 +21,15 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
     @Query("SELECT t FROM Team t JOIN t.members m WHERE m.id = :userId")
     List<Team> findByMemberId(@Param("userId") Long userId);
     
+    @Query("SELECT t.name FROM Team t WHERE t.id = :teamId")
+    Optional<String> findNameById(@Param("teamId") Long teamId);
+    
+    @Query("SELECT m.id, t.id FROM Team t JOIN t.members m")
+    List<Object[]> findAllMemberships();
+    
+    @Query("SELECT COUNT(m) > 0 FROM Team t JOIN t.members m WHERE t.id = :teamId AND m.id = :userId")
+    boolean existsMembership(@Param("teamId") Long teamId, @Param("userId") Long userId);
+    
     @Query("SELECT t FROM Team t WHERE t.name LIKE %:name%")
     List<Team> findByNameContaining(@Param("name") String name);
     
@@ -1,7 +1,12 @@
 package com.collabsphere.repository;
 
 import com.collabsphere.entity.WhiteboardData;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,4 +14,16 @@ import java.util.Optional;
 @Repository
 public interface WhiteboardDataRepository extends JpaRepository<WhiteboardData, Long> {
     Optional<WhiteboardData> findByTeamId(Long teamId);
+
+    // Serializes client saves and compaction of the same board
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM WhiteboardData w WHERE w.team.id = :teamId")
+    Optional<WhiteboardData> findForUpdateByTeamId(@Param("teamId") Long teamId);
+
+    @Query("SELECT w.lastOpSeq FROM WhiteboardData w WHERE w.team.id = :teamId")
+    Optional<Long> findLastOpSeqByTeamId(@Param("teamId") Long teamId);
+
+    @Modifying
+    @Query("DELETE FROM WhiteboardData w WHERE w.team.id = :teamId")
+    void deleteByTeamId(@Param("teamId") Long teamId);
 }
\ No newline at end of file
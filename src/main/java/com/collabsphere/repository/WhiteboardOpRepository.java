@@ -0,0 +1,32 @@
+package com.collabsphere.repository;
+
+import com.collabsphere.entity.WhiteboardOp;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface WhiteboardOpRepository extends JpaRepository<WhiteboardOp, Long> {
+
+    // (seq, payload) pairs after a snapshot, oldest first
+    @Query("SELECT o.seq, o.payload FROM WhiteboardOp o WHERE o.teamId = :teamId AND o.seq > :afterSeq ORDER BY o.seq")
+    List<Object[]> findPayloadsAfter(@Param("teamId") Long teamId, @Param("afterSeq") Long afterSeq);
+
+    @Query("SELECT COALESCE(MAX(o.seq), 0) FROM WhiteboardOp o WHERE o.teamId = :teamId")
+    Long findMaxSeq(@Param("teamId") Long teamId);
+
+    @Query("SELECT o.teamId FROM WhiteboardOp o GROUP BY o.teamId HAVING COUNT(o) >= :minOps")
+    List<Long> findTeamIdsWithAtLeast(@Param("minOps") long minOps);
+
+    @Modifying
+    @Query("DELETE FROM WhiteboardOp o WHERE o.teamId = :teamId AND o.seq <= :throughSeq")
+    int deleteThroughSeq(@Param("teamId") Long teamId, @Param("throughSeq") Long throughSeq);
+
+    @Modifying
+    @Query("DELETE FROM WhiteboardOp o WHERE o.teamId = :teamId")
+    void deleteByTeamId(@Param("teamId") Long teamId);
+}
@@ -0,0 +1,54 @@
+package com.collabsphere.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Turns a raw JWT into a {@link UserPrincipal}, shared by the HTTP filter and
+ * the STOMP CONNECT interceptor. Verified tokens are served from
+ * {@link JwtTokenCache}.
+ */
+@Component
+public class JwtPrincipalResolver {
+
+    @Autowired
+    private JwtUtils jwtUtils;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    /**
+     * @return the authenticated principal, or null when the token is invalid
+     * or belongs to a disabled user
+     */
+    public UserPrincipal resolve(String jwt) {
+        UserPrincipal cached = jwtTokenCache.get(jwt);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtUtils.parseClaims(jwt);
+        if (claims == null) {
+            return null;
+        }
+
+        // Self-contained tokens need no lookup unless the user was revoked since issue
+        UserPrincipal principal = jwtUtils.getPrincipalFromClaims(claims);
+        if (principal == null || tokenRevocationRegistry.isRevoked(principal.getId(), claims.getIssuedAt())) {
+            principal = (UserPrincipal) userDetailsService.loadUserByUsername(claims.getSubject());
+        }
+        if (!principal.isEnabled()) {
+            return null;
+        }
+
+        jwtTokenCache.put(jwt, principal, claims.getExpiration().getTime());
+        return principal;
+    }
+}
@@ -0,0 +1,106 @@
+package com.collabsphere.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded LRU cache of already verified JWTs. Each entry lives until the
+ * token's own expiration, so a hit skips both the signature check and the
+ * user lookup.
+ */
+@Component
+public class JwtTokenCache {
+
+    @Value("${jwt.cache.max-size:10000}")
+    private int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final LinkedHashMap<String, CachedToken> tokens = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+            if (size() > maxSize) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    public UserPrincipal get(String token) {
+        CachedToken cached;
+        synchronized (tokens) {
+            cached = tokens.get(token);
+            if (cached != null && cached.expiresAtMillis <= System.currentTimeMillis()) {
+                tokens.remove(token);
+                cached = null;
+            }
+        }
+
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.principal;
+    }
+
+    public void put(String token, UserPrincipal principal, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (tokens) {
+            tokens.put(token, new CachedToken(principal, expiresAtMillis));
+        }
+    }
+
+    /**
+     * Drop every cached token of the given user, e.g. after deactivation or a role change.
+     */
+    public void invalidateUser(Long userId) {
+        synchronized (tokens) {
+            Iterator<CachedToken> iterator = tokens.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().principal.getId().equals(userId)) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (tokens) {
+            tokens.clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (tokens) {
+            stats.put("size", tokens.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private static class CachedToken {
+        private final UserPrincipal principal;
+        private final long expiresAtMillis;
+
+        private CachedToken(UserPrincipal principal, long expiresAtMillis) {
+            this.principal = principal;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
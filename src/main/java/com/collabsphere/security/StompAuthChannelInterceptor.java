@@ -0,0 +1,260 @@
+package com.collabsphere.security;
+
+import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.repository.TeamRepository;
+import com.collabsphere.service.TeamMembershipIndex;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Authenticates the JWT once per STOMP session on CONNECT and authorizes each
+ * team destination once per session. Later frames only hit the per-session
+ * map of authorized teams.
+ *
+ * Broker destinations other than literal team destinations are refused, since
+ * the simple broker treats subscription destinations as Ant patterns. When a
+ * member leaves a team, their sessions lose the team and are unsubscribed
+ * from its destinations.
+ */
+@Component
+public class StompAuthChannelInterceptor implements ChannelInterceptor {
+
+    public static final String AUTHORIZED_TEAMS_ATTRIBUTE = "authorizedTeams";
+
+    // Set by the handshake when the session uses the raw WebSocket URL rather than SockJS
+    public static final String RAW_WEBSOCKET_ATTRIBUTE = "rawWebSocket";
+
+    private static final Pattern TEAM_DESTINATION =
+        Pattern.compile("^/(?:topic|app)/(?:team|chat|whiteboard)/(\\d+)(?:/.*)?$");
+
+    // Characters the broker's subscription registry would read as a pattern
+    private static final Pattern PATTERN_CHARACTERS = Pattern.compile("[*?{]");
+
+    @Autowired
+    private JwtPrincipalResolver jwtPrincipalResolver;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    // Created by the broker configuration, which also registers this interceptor
+    @Autowired
+    @Lazy
+    @Qualifier("clientInboundChannel")
+    private MessageChannel clientInboundChannel;
+
+    private final Map<String, SessionGrants> sessions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        teamMembershipIndex.addRemovalListener(this::revokeTeam);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() == null) {
+            return message;
+        }
+
+        switch (accessor.getCommand()) {
+            case CONNECT:
+                authenticate(accessor);
+                break;
+            case SUBSCRIBE:
+            case SEND:
+                authorize(accessor);
+                break;
+            case UNSUBSCRIBE:
+                forgetSubscription(accessor);
+                break;
+            case DISCONNECT:
+                if (accessor.getSessionId() != null) {
+                    sessions.remove(accessor.getSessionId());
+                }
+                break;
+            default:
+                break;
+        }
+        return message;
+    }
+
+    /**
+     * Principal attached to the session on CONNECT, or null.
+     */
+    public static UserPrincipal getUserPrincipal(Principal principal) {
+        if (principal instanceof UsernamePasswordAuthenticationToken authentication
+                && authentication.getPrincipal() instanceof UserPrincipal userPrincipal) {
+            return userPrincipal;
+        }
+        return null;
+    }
+
+    /**
+     * Name of a team this session is already authorized for, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public static String getAuthorizedTeamName(Map<String, Object> sessionAttributes, Long teamId) {
+        if (sessionAttributes == null) {
+            return null;
+        }
+        Map<Long, String> authorizedTeams = (Map<Long, String>) sessionAttributes.get(AUTHORIZED_TEAMS_ATTRIBUTE);
+        return authorizedTeams != null ? authorizedTeams.get(teamId) : null;
+    }
+
+    private void authenticate(StompHeaderAccessor accessor) {
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (!StringUtils.hasText(header) || !header.startsWith("Bearer ")) {
+            throw new BadCredentialsException("Missing bearer token");
+        }
+
+        UserPrincipal principal = jwtPrincipalResolver.resolve(header.substring(7));
+        if (principal == null) {
+            throw new BadCredentialsException("Invalid bearer token");
+        }
+        accessor.setUser(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    /**
+     * Take a team away from every session of a user who left it, and
+     * unsubscribe those sessions from its destinations.
+     */
+    public void revokeTeam(Long userId, Long teamId) {
+        for (Map.Entry<String, SessionGrants> entry : sessions.entrySet()) {
+            SessionGrants grants = entry.getValue();
+            if (!grants.userId.equals(userId) || grants.privileged) {
+                continue;
+            }
+            grants.authorizedTeams.remove(teamId);
+            List<String> subscriptionIds = new ArrayList<>();
+            grants.subscriptions.forEach((subscriptionId, subscribedTeamId) -> {
+                if (subscribedTeamId.equals(teamId)) {
+                    subscriptionIds.add(subscriptionId);
+                }
+            });
+            for (String subscriptionId : subscriptionIds) {
+                StompHeaderAccessor unsubscribe = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+                unsubscribe.setSessionId(entry.getKey());
+                unsubscribe.setSubscriptionId(subscriptionId);
+                clientInboundChannel.send(MessageBuilder.createMessage(new byte[0], unsubscribe.getMessageHeaders()));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void authorize(StompHeaderAccessor accessor) {
+        String destination = accessor.getDestination();
+        if (destination == null) {
+            if (accessor.getCommand() == StompCommand.SUBSCRIBE) {
+                throw new AccessDeniedException("Missing destination");
+            }
+            return;
+        }
+        if (PATTERN_CHARACTERS.matcher(destination).find()) {
+            throw new AccessDeniedException("Destination patterns are not allowed");
+        }
+        Matcher matcher = TEAM_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            if (destination.startsWith("/topic") || destination.startsWith("/queue")) {
+                throw new AccessDeniedException("Unknown destination");
+            }
+            return;
+        }
+
+        UserPrincipal principal = getUserPrincipal(accessor.getUser());
+        if (principal == null) {
+            throw new AccessDeniedException("Not authenticated");
+        }
+
+        Map<String, Object> sessionAttributes = accessor.getSessionAttributes();
+        if (sessionAttributes == null) {
+            throw new AccessDeniedException("No session");
+        }
+        // SockJS frames are text and would garble binary payloads
+        if (accessor.getCommand() == StompCommand.SUBSCRIBE && destination.startsWith("/topic/whiteboard/")
+                && destination.endsWith("/binary") && !Boolean.TRUE.equals(sessionAttributes.get(RAW_WEBSOCKET_ATTRIBUTE))) {
+            throw new AccessDeniedException("Binary whiteboard frames need the raw WebSocket endpoint /ws/websocket");
+        }
+        Map<Long, String> authorizedTeams = (Map<Long, String>) sessionAttributes
+            .computeIfAbsent(AUTHORIZED_TEAMS_ATTRIBUTE, key -> new ConcurrentHashMap<Long, String>());
+
+        boolean hasPermission = principal.getRole() == UserRole.ADMIN || principal.getRole() == UserRole.LECTURER;
+        SessionGrants grants = accessor.getSessionId() == null ? null : sessions.computeIfAbsent(accessor.getSessionId(),
+            id -> new SessionGrants(principal.getId(), hasPermission, authorizedTeams));
+
+        Long teamId = Long.valueOf(matcher.group(1));
+        String subscriptionId = accessor.getCommand() == StompCommand.SUBSCRIBE ? accessor.getSubscriptionId() : null;
+        // Recorded first, so a revocation running from here on finds the subscription
+        if (grants != null && subscriptionId != null) {
+            grants.subscriptions.put(subscriptionId, teamId);
+        }
+        try {
+            if (!authorizedTeams.containsKey(teamId)) {
+                if (!hasPermission && !teamMembershipIndex.isMember(principal.getId(), teamId)) {
+                    throw new AccessDeniedException("You are not a member of this team");
+                }
+                String teamName = teamRepository.findNameById(teamId)
+                    .orElseThrow(() -> new AccessDeniedException("Team not found"));
+                authorizedTeams.put(teamId, teamName);
+            }
+            // A removal committed before this check may have been revoked before the put above
+            if (!hasPermission && !teamMembershipIndex.isMember(principal.getId(), teamId)) {
+                authorizedTeams.remove(teamId);
+                throw new AccessDeniedException("You are not a member of this team");
+            }
+        } catch (AccessDeniedException e) {
+            if (grants != null && subscriptionId != null) {
+                grants.subscriptions.remove(subscriptionId);
+            }
+            throw e;
+        }
+    }
+
+    private void forgetSubscription(StompHeaderAccessor accessor) {
+        SessionGrants grants = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (grants != null && accessor.getSubscriptionId() != null) {
+            grants.subscriptions.remove(accessor.getSubscriptionId());
+        }
+    }
+
+    /**
+     * Teams and team subscriptions of one STOMP session, for revoking them.
+     * authorizedTeams is the map kept in the session attributes.
+     */
+    private static class SessionGrants {
+        private final Long userId;
+        private final boolean privileged;
+        private final Map<Long, String> authorizedTeams;
+        private final Map<String, Long> subscriptions = new ConcurrentHashMap<>();
+
+        private SessionGrants(Long userId, boolean privileged, Map<Long, String> authorizedTeams) {
+            this.userId = userId;
+            this.privileged = privileged;
+            this.authorizedTeams = authorizedTeams;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.collabsphere.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user, per-destination token bucket limit on chat and whiteboard SEND
+ * frames. Frames over the limit are dropped, or with the ERROR policy
+ * answered with an ERROR frame, which ends the STOMP session. Neither holds
+ * up the shared inbound channel threads.
+ */
+@Component
+public class StompRateLimitInterceptor implements ChannelInterceptor {
+
+    public enum Policy { DROP, ERROR }
+
+    @Value("${websocket.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${websocket.rate-limit.policy:DROP}")
+    private Policy policy;
+
+    @Value("${websocket.rate-limit.max-buckets:100000}")
+    private int maxBuckets;
+
+    @Value("${websocket.rate-limit.chat.capacity:10}")
+    private int chatCapacity;
+
+    @Value("${websocket.rate-limit.chat.refill-per-second:2}")
+    private int chatRefillPerSecond;
+
+    @Value("${websocket.rate-limit.whiteboard.capacity:120}")
+    private int whiteboardCapacity;
+
+    @Value("${websocket.rate-limit.whiteboard.refill-per-second:60}")
+    private int whiteboardRefillPerSecond;
+
+    private TokenBucketRateLimiter chatLimiter;
+    private TokenBucketRateLimiter whiteboardLimiter;
+
+    private final LongAdder allowedFrames = new LongAdder();
+    private final LongAdder rejectedChatFrames = new LongAdder();
+    private final LongAdder rejectedWhiteboardFrames = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        chatLimiter = new TokenBucketRateLimiter(chatCapacity, chatRefillPerSecond, maxBuckets);
+        whiteboardLimiter = new TokenBucketRateLimiter(whiteboardCapacity, whiteboardRefillPerSecond, maxBuckets);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (!enabled) {
+            return message;
+        }
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SEND || accessor.getDestination() == null) {
+            return message;
+        }
+
+        String destination = accessor.getDestination();
+        TokenBucketRateLimiter limiter;
+        LongAdder rejected;
+        if (destination.startsWith("/app/chat/")) {
+            limiter = chatLimiter;
+            rejected = rejectedChatFrames;
+        } else if (destination.startsWith("/app/whiteboard/")) {
+            limiter = whiteboardLimiter;
+            rejected = rejectedWhiteboardFrames;
+        } else {
+            return message;
+        }
+
+        UserPrincipal principal = StompAuthChannelInterceptor.getUserPrincipal(accessor.getUser());
+        String key = (principal != null ? principal.getId() : accessor.getSessionId()) + ":" + destination;
+
+        long waitMillis = limiter.tryAcquire(key);
+        if (waitMillis > 0) {
+            rejected.increment();
+            if (policy == Policy.ERROR) {
+                throw new MessageDeliveryException(message, "Rate limit exceeded, retry in " + waitMillis + " ms");
+            }
+            // Returning null stops the frame from reaching the message handlers
+            return null;
+        }
+        allowedFrames.increment();
+        return message;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("policy", policy);
+        stats.put("allowedFrames", allowedFrames.sum());
+        stats.put("rejectedChatFrames", rejectedChatFrames.sum());
+        stats.put("rejectedWhiteboardFrames", rejectedWhiteboardFrames.sum());
+        stats.put("buckets", chatLimiter.size() + whiteboardLimiter.size());
+        return stats;
+    }
+}
@@ -0,0 +1,90 @@
+package com.collabsphere.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string. Each bucket packs its
+ * last refill time and remaining milli-tokens into one AtomicLong updated by
+ * CAS; the bucket map itself is a lock-striped ConcurrentHashMap.
+ */
+public class TokenBucketRateLimiter {
+
+    private static final int TOKEN_BITS = 20;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final long capacityMilliTokens;
+    private final long refillPerSecond;
+    private final int maxBuckets;
+    private final LongSupplier clock;
+    private final long epochMillis;
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(int capacity, int refillPerSecond, int maxBuckets) {
+        this(capacity, refillPerSecond, maxBuckets, System::currentTimeMillis);
+    }
+
+    TokenBucketRateLimiter(int capacity, int refillPerSecond, int maxBuckets, LongSupplier clock) {
+        if (capacity < 1 || capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("Bucket capacity must be between 1 and " + TOKEN_MASK / MILLI);
+        }
+        if (refillPerSecond < 1) {
+            throw new IllegalArgumentException("Refill rate must be positive");
+        }
+        this.capacityMilliTokens = capacity * MILLI;
+        this.refillPerSecond = refillPerSecond;
+        this.maxBuckets = maxBuckets;
+        this.clock = clock;
+        this.epochMillis = clock.getAsLong();
+    }
+
+    /**
+     * Take one token from the bucket of the given key.
+     *
+     * @return 0 when a token was taken, otherwise the milliseconds until one is available
+     */
+    public long tryAcquire(String key) {
+        long now = clock.getAsLong() - epochMillis;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                evictIdle(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now, capacityMilliTokens)));
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long tokens = available(state, now);
+            if (tokens < MILLI) {
+                return (MILLI - tokens + refillPerSecond - 1) / refillPerSecond;
+            }
+            if (bucket.compareAndSet(state, pack(Math.max(now, state >>> TOKEN_BITS), tokens - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // Refill is one milli-token per millisecond for each token/second of rate
+    private long available(long state, long now) {
+        long elapsed = Math.max(0, now - (state >>> TOKEN_BITS));
+        return Math.min(capacityMilliTokens, (state & TOKEN_MASK) + elapsed * refillPerSecond);
+    }
+
+    // Buckets that have refilled completely carry no state worth keeping
+    private void evictIdle(long now) {
+        buckets.values().removeIf(bucket -> available(bucket.get(), now) >= capacityMilliTokens);
+    }
+
+    private static long pack(long millis, long milliTokens) {
+        return (millis << TOKEN_BITS) | milliTokens;
+    }
+}
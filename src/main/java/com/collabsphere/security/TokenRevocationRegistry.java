@@ -0,0 +1,91 @@
+package com.collabsphere.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory epoch table for self-contained tokens: claims of a token issued
+ * before a user's last revocation are no longer trusted. Entries only need to
+ * outlive the token lifetime, so the table stays small.
+ *
+ * With cluster.enabled revocations are also written to token_revocations, and
+ * every node polls that table every revocation-poll-ms, dropping its cached
+ * tokens of the users revoked elsewhere. The first poll, right after startup,
+ * reads every row still in the table.
+ */
+@Component
+public class TokenRevocationRegistry {
+
+    // Rows are read again for this long, so one whose transaction committed late is not missed
+    private static final long POLL_OVERLAP_MS = 60_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Value("${jwt.expiration}")
+    private int jwtExpirationMs;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    private volatile long polledAt;
+
+    public void revoke(Long userId) {
+        long now = System.currentTimeMillis();
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < now - jwtExpirationMs);
+        revokedBefore.merge(userId, now, Math::max);
+        if (clusterEnabled) {
+            // Part of the user's update, so other nodes only see it once that commits
+            jdbcTemplate.update("INSERT INTO token_revocations (user_id, revoked_at) VALUES (?, ?)", userId, now);
+        }
+    }
+
+    public boolean isRevoked(Long userId, Date issuedAt) {
+        Long revokedAt = revokedBefore.get(userId);
+        if (revokedAt == null) {
+            return false;
+        }
+        // iat only has second precision, so a token from the same second counts as revoked
+        return issuedAt == null || issuedAt.getTime() <= revokedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.revocation-poll-ms:1000}")
+    public void poll() {
+        if (!clusterEnabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT user_id, revoked_at FROM token_revocations WHERE revoked_at > ?", rs -> {
+            Long userId = rs.getLong(1);
+            long revokedAt = rs.getLong(2);
+            Long previous = revokedBefore.get(userId);
+            if (previous == null || previous < revokedAt) {
+                revokedBefore.merge(userId, revokedAt, Math::max);
+                jwtTokenCache.invalidateUser(userId);
+            }
+        }, polledAt - POLL_OVERLAP_MS);
+        polledAt = started;
+        jdbcTemplate.update("DELETE FROM token_revocations WHERE revoked_at < ?",
+            System.currentTimeMillis() - jwtExpirationMs);
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    public int size() {
+        return revokedBefore.size();
+    }
+}
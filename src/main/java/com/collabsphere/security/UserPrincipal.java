@@ -1,6 +1,7 @@
 package com.collabsphere.security;
 
 import com.collabsphere.entity.User;
+import com.collabsphere.entity.enums.UserRole;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -13,6 +14,8 @@ public class UserPrincipal implements UserDetails {
     private String email;
     private String password;
     private String fullName;
+    private UserRole role;
+    private boolean enabled;
     private Collection<? extends GrantedAuthority> authorities;
 
     public UserPrincipal(Long id, String email, String password, String fullName, 
@@ -21,21 +24,28 @@ public class UserPrincipal implements UserDetails {
         this.email = email;
         this.password = password;
         this.fullName = fullName;
+        this.enabled = true;
         this.authorities = authorities;
     }
 
     public static UserPrincipal create(User user) {
+        UserPrincipal principal = create(user.getId(), user.getEmail(), user.getPassword(),
+            user.getFullName(), user.getRole());
+        principal.enabled = !Boolean.FALSE.equals(user.getActive());
+        return principal;
+    }
+
+    /**
+     * Build a principal from signed token claims, without a password.
+     */
+    public static UserPrincipal create(Long id, String email, String password, String fullName, UserRole role) {
         Collection<GrantedAuthority> authorities = Collections.singletonList(
-            new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
+            new SimpleGrantedAuthority("ROLE_" + role.name())
         );
 
-        return new UserPrincipal(
-            user.getId(),
-            user.getEmail(),
-            user.getPassword(),
-            user.getFullName(),
-            authorities
-        );
+        UserPrincipal principal = new UserPrincipal(id, email, password, fullName, authorities);
+        principal.role = role;
+        return principal;
     }
 
     public Long getId() {
@@ -50,6 +60,10 @@ public class UserPrincipal implements UserDetails {
         return fullName;
     }
 
+    public UserRole getRole() {
+        return role;
+    }
+
     @Override
     public String getUsername() {
         return email;
@@ -82,6 +96,6 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return true;
+        return enabled;
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.collabsphere.security;
+
+import com.collabsphere.entity.User;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Drops cached authentication state whenever a user is deactivated, changes
+ * role or is deleted. Instantiated by Hibernate through Spring's bean container.
+ *
+ * The callbacks run at flush time, while other requests still read the old
+ * row and may cache a principal built from it, so the cache is cleared again
+ * once the transaction commits.
+ */
+public class UserSecurityListener {
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @PostUpdate
+    public void onUpdate(User user) {
+        if (user.isSecurityStateChanged()) {
+            revoke(user);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(User user) {
+        revoke(user);
+    }
+
+    private void revoke(User user) {
+        Long userId = user.getId();
+        tokenRevocationRegistry.revoke(userId);
+        jwtTokenCache.invalidateUser(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    jwtTokenCache.invalidateUser(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.ChatMessageResponse;
+import com.collabsphere.repository.MessageRepository;
+import com.collabsphere.repository.TeamRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes a team's whole chat history to an output stream as NDJSON or CSV.
+ * Rows come from the archive and a database cursor and are written one at a
+ * time, so memory use does not depend on the length of the history.
+ */
+@Service
+@Transactional
+public class ChatExportService {
+
+    public static final String NDJSON = "ndjson";
+    public static final String CSV = "csv";
+
+    private static final String CSV_HEADER = "seq,id,timestamp,sender_id,sender_name,content";
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectWriter rowWriter;
+
+    @PostConstruct
+    public void init() {
+        // The writer is shared by every row: no per-row flush, and it must not close the response
+        rowWriter = objectMapper.writerFor(ChatMessageResponse.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /**
+     * Fail before the response starts when the team does not exist or the format is unknown.
+     */
+    public void checkExport(Long teamId, String format) {
+        if (!NDJSON.equals(format) && !CSV.equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+        if (!teamRepository.existsById(teamId)) {
+            throw new RuntimeException("Team not found");
+        }
+    }
+
+    public void exportMessages(Long teamId, String format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        Consumer<ChatMessageResponse> row = CSV.equals(format)
+            ? message -> writeCsvRow(writer, message)
+            : message -> writeJsonLine(writer, message);
+        if (CSV.equals(format)) {
+            writer.write(CSV_HEADER);
+            writer.write("\r\n");
+        }
+        try {
+            // Archived messages hold the lowest seqs; they are read one decompressed segment at a time
+            messageArchiveService.forEach(teamId, row);
+            try (Stream<ChatMessageResponse> messages = messageRepository.streamResponsesByTeamId(teamId)) {
+                messages.forEach(row);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeJsonLine(Writer writer, ChatMessageResponse message) {
+        try {
+            rowWriter.writeValue(writer, message);
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeCsvRow(Writer writer, ChatMessageResponse message) {
+        try {
+            writer.write(message.getSeq() != null ? message.getSeq().toString() : "");
+            writer.write(',');
+            writer.write(message.getId().toString());
+            writer.write(',');
+            writer.write(message.getTimestamp().toString());
+            writer.write(',');
+            writer.write(message.getSenderId().toString());
+            writer.write(',');
+            writeCsvField(writer, message.getSenderName());
+            writer.write(',');
+            writeCsvField(writer, message.getContent());
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks and double the quotes
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,296 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.ChatMessageResponse;
+import com.collabsphere.repository.MessageRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index of chat messages, one per team. A team is indexed
+ * from MessageRepository on its first search and then kept current by
+ * sendMessage; the least recently searched teams are dropped past
+ * max-indexed-teams and rebuilt on demand. Results are ranked with BM25.
+ * Messages sent while a team is being built are queued and indexed once the
+ * build finishes, so senders never wait for it.
+ *
+ * With cluster.enabled other nodes' messages never reach this index, so each
+ * search first indexes the rows stored since the highest seq it has read.
+ */
+@Component
+public class ChatSearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    // Usual BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
+
+    @Value("${chat.search.max-indexed-teams:500}")
+    private int maxIndexedTeams;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final LinkedHashMap<Long, TeamIndex> indexes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, TeamIndex> eldest) {
+            return size() > maxIndexedTeams;
+        }
+    };
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder builds = new LongAdder();
+
+    /**
+     * Index a newly sent message once the surrounding transaction commits.
+     * Teams that have not been searched yet are indexed in full on first search.
+     */
+    public void add(Long teamId, Long messageId, String content) {
+        afterCommit(() -> {
+            TeamIndex index;
+            synchronized (indexes) {
+                index = indexes.get(teamId);
+                if (index != null && !index.built) {
+                    index.queued.add(new QueuedMessage(messageId, content));
+                    return;
+                }
+            }
+            if (index != null) {
+                index.add(messageId, content);
+            }
+        });
+    }
+
+    public void evictTeam(Long teamId) {
+        synchronized (indexes) {
+            indexes.remove(teamId);
+        }
+    }
+
+    /**
+     * @return message ids of one page of hits, best first, and the total hit count
+     */
+    public SearchResult search(Long teamId, String query, int page, int size) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new SearchResult(List.of(), 0);
+        }
+        searches.increment();
+        return index(teamId).search(terms, page, size);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int documents = 0;
+        int terms = 0;
+        synchronized (indexes) {
+            stats.put("indexedTeams", indexes.size());
+            for (TeamIndex index : indexes.values()) {
+                documents += index.docCount;
+                terms += index.postings.size();
+            }
+        }
+        stats.put("documents", documents);
+        stats.put("terms", terms);
+        stats.put("maxIndexedTeams", maxIndexedTeams);
+        stats.put("searches", searches.sum());
+        stats.put("builds", builds.sum());
+        return stats;
+    }
+
+    /**
+     * Lowercase, strip diacritics (so "nhom" matches "nhóm") and split on anything but letters and digits.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+            .replace('đ', 'd').replace('Đ', 'd')
+            .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private TeamIndex index(Long teamId) {
+        TeamIndex index;
+        synchronized (indexes) {
+            index = indexes.computeIfAbsent(teamId, id -> new TeamIndex());
+        }
+        synchronized (index) {
+            if (!index.built) {
+                // Read before the query: a message leaves the queue only after its row commits
+                List<ChatMessageResponse> unsaved = messageWriteBehindQueue.isEnabled()
+                    ? messageWriteBehindQueue.getUnsaved(teamId) : List.of();
+                // One pass over the team's rows via the (team_id, seq) index, never the whole table
+                catchUp(teamId, index);
+                TeamIndex target = index;
+                messageArchiveService.forEach(teamId, message -> target.add(message.getId(), message.getContent()));
+                for (ChatMessageResponse message : unsaved) {
+                    index.add(message.getId(), message.getContent());
+                }
+                List<QueuedMessage> queued;
+                synchronized (indexes) {
+                    index.built = true;
+                    queued = new ArrayList<>(index.queued);
+                    index.queued.clear();
+                }
+                // Ids already read from the table are skipped
+                for (QueuedMessage message : queued) {
+                    index.add(message.messageId(), message.content());
+                }
+                builds.increment();
+            } else if (clusterEnabled) {
+                catchUp(teamId, index);
+            }
+        }
+        return index;
+    }
+
+    private void catchUp(Long teamId, TeamIndex index) {
+        for (Object[] row : messageRepository.findIdAndContentAfterSeq(teamId, index.storedSeq)) {
+            index.add((Long) row[0], (String) row[1]);
+            index.storedSeq = (Long) row[2];
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    public record SearchResult(List<Long> messageIds, int total) {}
+
+    private record QueuedMessage(Long messageId, String content) {}
+
+    /**
+     * Postings and document lengths of one team. Documents are numbered in
+     * the order they were indexed. Guarded by its own monitor.
+     */
+    private static class TeamIndex {
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Set<Long> indexedIds = new HashSet<>();
+        private long[] messageIds = new long[64];
+        private int[] lengths = new int[64];
+        private int docCount;
+        private long totalLength;
+        // Highest seq read from the messages table
+        private long storedSeq;
+        private boolean built;
+        // Sent while the index was being built
+        private final List<QueuedMessage> queued = new ArrayList<>();
+
+        private synchronized void add(Long messageId, String content) {
+            if (!indexedIds.add(messageId)) {
+                return;
+            }
+            List<String> tokens = tokenize(content);
+            if (docCount == messageIds.length) {
+                messageIds = Arrays.copyOf(messageIds, docCount * 2);
+                lengths = Arrays.copyOf(lengths, docCount * 2);
+            }
+            int doc = docCount++;
+            messageIds[doc] = messageId;
+            lengths[doc] = tokens.size();
+            totalLength += tokens.size();
+
+            Map<String, Integer> frequencies = new HashMap<>();
+            for (String token : tokens) {
+                frequencies.merge(token, 1, Integer::sum);
+            }
+            frequencies.forEach((term, frequency) ->
+                postings.computeIfAbsent(term, t -> new Postings()).add(doc, frequency));
+        }
+
+        private synchronized SearchResult search(List<String> terms, int page, int size) {
+            double averageLength = docCount == 0 ? 0 : (double) totalLength / docCount;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    int frequency = list.frequencies[i];
+                    double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    scores.merge(doc, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+
+            // Best score first, newer (higher id) messages first on ties. Doc numbers only give indexing
+            // order, and the build indexes the table before the older archived messages
+            List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int order = Double.compare(b.getValue(), a.getValue());
+                return order != 0 ? order : Long.compare(messageIds[b.getKey()], messageIds[a.getKey()]);
+            });
+
+            List<Long> pageIds = new ArrayList<>();
+            // page * size can exceed an int for a page far past the end
+            int from = (int) Math.min((long) page * size, ranked.size());
+            int to = Math.min(from + size, ranked.size());
+            for (Map.Entry<Integer, Double> entry : ranked.subList(from, to)) {
+                pageIds.add(messageIds[entry.getKey()]);
+            }
+            return new SearchResult(pageIds, ranked.size());
+        }
+    }
+
+    private static class Postings {
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
@@ -1,23 +1,33 @@
 package com.collabsphere.service;
 
+import com.collabsphere.dto.ChatMessagePage;
 import com.collabsphere.dto.ChatMessageRequest;
 import com.collabsphere.dto.ChatMessageResponse;
+import com.collabsphere.dto.ChatSearchPage;
+import com.collabsphere.dto.ChatSyncResponse;
+import com.collabsphere.dto.UnreadCount;
 import com.collabsphere.entity.Message;
-import com.collabsphere.entity.Team;
-import com.collabsphere.entity.User;
-import com.collabsphere.entity.enums.UserRole;
 import com.collabsphere.repository.MessageRepository;
 import com.collabsphere.repository.TeamRepository;
 import com.collabsphere.repository.UserRepository;
+import com.collabsphere.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Service
 @Transactional
@@ -29,90 +39,313 @@ public class ChatService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
     @Autowired
     private UserRepository userRepository;
 
-    public ChatMessageResponse sendMessage(ChatMessageRequest request) {
-        // Find team
-        Team team = teamRepository.findById(request.getTeamId())
-            .orElseThrow(() -> new RuntimeException("Team not found"));
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
 
-        // Find sender
-        User sender = userRepository.findById(request.getSenderId())
-            .orElseThrow(() -> new RuntimeException("Sender not found"));
+    @Autowired
+    private RecentMessageCache recentMessageCache;
 
-        // Check if sender is a member of the team or has permission
-        if (!isTeamMemberOrHasPermission(sender, team)) {
+    @Autowired
+    private MessageSequencer messageSequencer;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ReadCursorService readCursorService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Value("${chat.history.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${chat.history.max-page-size:200}")
+    private int maxPageSize;
+
+    /**
+     * Persist a chat message sent over STOMP. Membership was already checked
+     * when the session was authorized for the team destination, so neither the
+     * sender nor the team is loaded here.
+     */
+    // Read committed: a shared sequence reads MAX(seq) after taking the team lock
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ChatMessageResponse sendMessage(ChatMessageRequest request, UserPrincipal sender, String teamName) {
+        if (sender == null || teamName == null) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
+        request.setSenderId(sender.getId());
+        // Numbered per team; the seq stays in flight until its row is written or abandoned
+        long seq = messageSequencer.next(request.getTeamId());
+
+        // Write-behind: assign the id now, broadcast, and let the background writer insert it
+        if (messageWriteBehindQueue.isEnabled()) {
+            Long id = messageWriteBehindQueue.nextId();
+            LocalDateTime timestamp = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            ChatMessageResponse response = new ChatMessageResponse(id, request.getContent(),
+                request.getTeamId(), teamName, sender.getId(), sender.getFullName(), timestamp, seq);
+            if (!messageWriteBehindQueue.enqueue(response)) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Chat is busy, please retry");
+            }
+            recentMessageCache.add(request.getTeamId(), response);
+            chatSearchIndex.add(request.getTeamId(), id, response.getContent());
+            readCursorService.markSent(sender.getId(), request.getTeamId(), seq);
+            return response;
+        }
+
+        messageSequencer.completeAfterTransaction(request.getTeamId(), seq);
 
         // Create and save message
         Message message = new Message();
         message.setContent(request.getContent());
-        message.setTeam(team);
-        message.setSender(sender);
-        message.setTimestamp(LocalDateTime.now());
+        message.setTeam(teamRepository.getReferenceById(request.getTeamId()));
+        message.setSender(userRepository.getReferenceById(sender.getId()));
+        // Same precision as the datetime(6) column, so cached and stored cursors agree
+        message.setTimestamp(LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        message.setSeq(seq);
 
         Message savedMessage = messageRepository.save(message);
 
         // Convert to response DTO
-        return convertToResponse(savedMessage);
+        ChatMessageResponse response = new ChatMessageResponse(
+            savedMessage.getId(),
+            savedMessage.getContent(),
+            request.getTeamId(),
+            teamName,
+            sender.getId(),
+            sender.getFullName(),
+            savedMessage.getTimestamp(),
+            seq
+        );
+        recentMessageCache.add(request.getTeamId(), response);
+        chatSearchIndex.add(request.getTeamId(), savedMessage.getId(), savedMessage.getContent());
+        readCursorService.markSent(sender.getId(), request.getTeamId(), seq);
+        return response;
     }
 
-    public List<ChatMessageResponse> getTeamMessages(Long teamId, User user) {
-        // Find team
-        Team team = teamRepository.findById(teamId)
-            .orElseThrow(() -> new RuntimeException("Team not found"));
+    // Read committed: a cold message buffer loads from the state at load time, not at the first query
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<ChatMessageResponse> getTeamMessages(Long teamId, UserPrincipal user) {
+        checkTeamAccess(teamId, user);
 
-        // Check if user is a member of the team or has permission
-        if (!isTeamMemberOrHasPermission(user, team)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
-                "You are not a member of this team");
+        List<ChatMessageResponse> cached = recentMessageCache.getAll(teamId);
+        if (cached != null) {
+            return cached;
+        }
+        List<ChatMessageResponse> messages = messageRepository.findResponsesByTeamId(teamId);
+        if (messageArchiveService.getNewestTimestamp(teamId) == null) {
+            return messages;
+        }
+        return merge(messageArchiveService.getAll(teamId), messages, MessageArchiveService.KEY_ORDER,
+            Integer.MAX_VALUE);
+    }
+
+    /**
+     * One page of history: the newest messages, or those strictly before or
+     * after a cursor. Results are always in ascending order.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ChatMessagePage getTeamMessagePage(Long teamId, UserPrincipal user, String before, String after,
+                                              Integer limit) {
+        checkTeamAccess(teamId, user);
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
         }
 
-        List<Message> messages = messageRepository.findByTeamIdOrderByTimestamp(teamId);
-        return messages.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        // One extra row tells whether another page exists in the same direction
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+
+        List<ChatMessageResponse> messages;
+        if (after != null) {
+            ChatMessagePage.Cursor cursor = ChatMessagePage.decodeCursor(after);
+            messages = recentMessageCache.getAfter(teamId, cursor.timestamp(), cursor.id(), pageSize + 1);
+            if (messages == null) {
+                messages = messageRepository.findPageAfter(teamId, cursor.timestamp(), cursor.id(), window);
+            }
+            LocalDateTime archivedUntil = messageArchiveService.getNewestTimestamp(teamId);
+            if (archivedUntil != null && !cursor.timestamp().isAfter(archivedUntil)) {
+                messages = merge(messages, messageArchiveService.getAfter(teamId, cursor.timestamp(), cursor.id(),
+                    pageSize + 1), MessageArchiveService.KEY_ORDER, pageSize + 1);
+            }
+        } else if (before != null) {
+            ChatMessagePage.Cursor cursor = ChatMessagePage.decodeCursor(before);
+            messages = recentMessageCache.getBefore(teamId, cursor.timestamp(), cursor.id(), pageSize + 1);
+            if (messages == null) {
+                messages = messageRepository.findPageBefore(teamId, cursor.timestamp(), cursor.id(), window);
+            }
+            messages = withArchivedBefore(teamId, messages, cursor.timestamp(), cursor.id(), pageSize + 1);
+        } else {
+            messages = recentMessageCache.getBefore(teamId, null, null, pageSize + 1);
+            if (messages == null) {
+                messages = messageRepository.findLatestPage(teamId, window);
+            }
+            messages = withArchivedBefore(teamId, messages, null, null, pageSize + 1);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        List<ChatMessageResponse> page = new ArrayList<>(messages.subList(0, Math.min(pageSize, messages.size())));
+        if (after == null) {
+            Collections.reverse(page);
+        }
+        return new ChatMessagePage(page, hasMore);
     }
 
-    public List<ChatMessageResponse> getRecentMessages(Long teamId, User user, LocalDateTime since) {
-        // Find team
-        Team team = teamRepository.findById(teamId)
-            .orElseThrow(() -> new RuntimeException("Team not found"));
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public List<ChatMessageResponse> getRecentMessages(Long teamId, UserPrincipal user, LocalDateTime since) {
+        checkTeamAccess(teamId, user);
 
-        // Check if user is a member of the team or has permission
-        if (!isTeamMemberOrHasPermission(user, team)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
-                "You are not a member of this team");
+        List<ChatMessageResponse> cached = recentMessageCache.getSince(teamId, since);
+        if (cached != null) {
+            return cached;
+        }
+        List<ChatMessageResponse> messages = messageRepository.findResponsesByTeamIdSince(teamId, since);
+        LocalDateTime archivedUntil = messageArchiveService.getNewestTimestamp(teamId);
+        if (archivedUntil == null || since.isAfter(archivedUntil)) {
+            return messages;
+        }
+        return merge(messageArchiveService.getSince(teamId, since), messages, MessageArchiveService.KEY_ORDER,
+            Integer.MAX_VALUE);
+    }
+
+    /**
+     * Delta sync for reconnecting clients: messages with seq in (afterSeq, head],
+     * where head never passes a message that is still being written. The
+     * cursor never passes the last message returned either.
+     */
+    // Read committed: the range query must see every row at or below a head read after the transaction began
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ChatSyncResponse syncMessages(Long teamId, UserPrincipal user, long afterSeq, Integer limit) {
+        checkTeamAccess(teamId, user);
+
+        long head = messageSequencer.committedHead(teamId);
+        if (afterSeq >= head) {
+            return new ChatSyncResponse(Collections.emptyList(), head, head, false);
         }
 
-        List<Message> messages = messageRepository.findByTeamIdAndTimestampAfter(teamId, since);
-        return messages.stream()
-                .map(this::convertToResponse)
-                .collect(Collectors.toList());
+        int pageSize = limit == null ? maxPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        List<ChatMessageResponse> messages = messageRepository.findResponsesBySeqRange(
+            teamId, afterSeq, head, PageRequest.of(0, pageSize + 1));
+        // Clients far behind continue into the archive, which always holds the lowest seqs
+        if (afterSeq < messageArchiveService.getArchivedThroughSeq(teamId)) {
+            messages = merge(messageArchiveService.getAfterSeq(teamId, afterSeq, pageSize + 1), messages,
+                Comparator.comparing(ChatMessageResponse::getSeq), pageSize + 1);
+        }
+
+        boolean hasMore = messages.size() > pageSize;
+        if (hasMore) {
+            messages = new ArrayList<>(messages.subList(0, pageSize));
+        }
+        long nextAfterSeq = messages.isEmpty() ? afterSeq : messages.get(messages.size() - 1).getSeq();
+        return new ChatSyncResponse(messages, head, nextAfterSeq, hasMore);
     }
 
-    private ChatMessageResponse convertToResponse(Message message) {
-        return new ChatMessageResponse(
-            message.getId(),
-            message.getContent(),
-            message.getTeam().getId(),
-            message.getTeam().getName(),
-            message.getSender().getId(),
-            message.getSender().getFullName(),
-            message.getTimestamp()
-        );
+    /**
+     * Ranked full-text search over a team's chat, answered from the in-memory
+     * index; only the hits of the requested page are read, by primary key.
+     * Read committed, so a first search builds the index from current rows.
+     */
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public ChatSearchPage searchMessages(Long teamId, UserPrincipal user, String query, int page, Integer size) {
+        checkTeamAccess(teamId, user);
+
+        int pageSize = size == null ? defaultPageSize : Math.max(1, Math.min(size, maxPageSize));
+        ChatSearchIndex.SearchResult result = chatSearchIndex.search(teamId, query, Math.max(0, page), pageSize);
+        if (result.messageIds().isEmpty()) {
+            return new ChatSearchPage(Collections.emptyList(), result.total(), page, pageSize);
+        }
+
+        // Read before the query: a message leaves the queue only after its row commits
+        List<ChatMessageResponse> unsaved = messageWriteBehindQueue.isEnabled()
+            ? messageWriteBehindQueue.getUnsaved(teamId) : List.of();
+        Map<Long, ChatMessageResponse> byId = new HashMap<>();
+        for (ChatMessageResponse message : messageRepository.findResponsesByIds(result.messageIds())) {
+            byId.put(message.getId(), message);
+        }
+        if (byId.size() < result.messageIds().size() && messageArchiveService.getArchivedThroughSeq(teamId) > 0) {
+            List<Long> missing = result.messageIds().stream().filter(id -> !byId.containsKey(id)).toList();
+            for (ChatMessageResponse message : messageArchiveService.findByIds(teamId, missing)) {
+                byId.put(message.getId(), message);
+            }
+        }
+        for (ChatMessageResponse message : unsaved) {
+            byId.putIfAbsent(message.getId(), message);
+        }
+        List<ChatMessageResponse> messages = new ArrayList<>();
+        for (Long id : result.messageIds()) {
+            // A write-behind message whose flush was dropped is never stored
+            ChatMessageResponse message = byId.get(id);
+            if (message != null) {
+                messages.add(message);
+            }
+        }
+        return new ChatSearchPage(messages, result.total(), page, pageSize);
+    }
+
+    public List<UnreadCount> getUnreadCounts(UserPrincipal user) {
+        return readCursorService.getUnreadCounts(user.getId());
+    }
+
+    /**
+     * Mark a team's chat read up to {@code seq}, or entirely when it is null.
+     */
+    public UnreadCount markRead(Long teamId, UserPrincipal user, Long seq) {
+        checkTeamAccess(teamId, user);
+        return readCursorService.markRead(user.getId(), teamId, seq);
+    }
+
+    /**
+     * Newest-first page before a cursor, completed from the archive when the
+     * hot rows run out or overlap archived timestamps.
+     */
+    private List<ChatMessageResponse> withArchivedBefore(Long teamId, List<ChatMessageResponse> messages,
+                                                         LocalDateTime timestamp, Long id, int count) {
+        LocalDateTime archivedUntil = messageArchiveService.getNewestTimestamp(teamId);
+        if (archivedUntil == null) {
+            return messages;
+        }
+        boolean overlaps = !messages.isEmpty()
+            && !messages.get(messages.size() - 1).getTimestamp().isAfter(archivedUntil);
+        if (messages.size() >= count && !overlaps) {
+            return messages;
+        }
+        return merge(messages, messageArchiveService.getBefore(teamId, timestamp, id, count),
+            MessageArchiveService.KEY_ORDER.reversed(), count);
+    }
+
+    private static List<ChatMessageResponse> merge(List<ChatMessageResponse> first, List<ChatMessageResponse> second,
+                                                   Comparator<ChatMessageResponse> order, int limit) {
+        // A message archived between the two reads comes back from both
+        Map<Long, ChatMessageResponse> byId = new HashMap<>();
+        for (ChatMessageResponse message : first) {
+            byId.put(message.getId(), message);
+        }
+        for (ChatMessageResponse message : second) {
+            byId.putIfAbsent(message.getId(), message);
+        }
+        List<ChatMessageResponse> merged = new ArrayList<>(byId.values());
+        merged.sort(order);
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
     }
 
-    private boolean isTeamMemberOrHasPermission(User user, Team team) {
-        // Admins and lecturers have access to all teams
-        if (user.getRole() == UserRole.ADMIN || user.getRole() == UserRole.LECTURER) {
-            return true;
+    // Teams with a loaded message buffer are known to exist, so only cold teams hit the database
+    private void checkTeamAccess(Long teamId, UserPrincipal user) {
+        if (!recentMessageCache.isCached(teamId) && !teamRepository.existsById(teamId)) {
+            throw new RuntimeException("Team not found");
+        }
+
+        // Check if user is a member of the team or has permission
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, teamId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
+                "You are not a member of this team");
         }
-        
-        // Check if user is a member of the team
-        return team.getMembers().contains(user);
     }
 }
\ No newline at end of file
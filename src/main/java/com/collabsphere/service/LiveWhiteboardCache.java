@@ -0,0 +1,396 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.dto.WhiteboardState;
+import com.collabsphere.dto.WhiteboardTiles;
+import com.collabsphere.entity.Team;
+import com.collabsphere.entity.WhiteboardData;
+import com.collabsphere.repository.TeamRepository;
+import com.collabsphere.repository.WhiteboardDataRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Current state of each active team's whiteboard, loaded from the snapshot
+ * and op log on first use and then kept up to date by every logged event,
+ * so joins are answered from memory.
+ *
+ * Changed boards are written back to WhiteboardData every
+ * checkpoint-interval-ms, when evicted and on shutdown. Boards untouched for
+ * idle-evict-ms are evicted, and the least recently used ones once there are
+ * more than max-boards. A checkpoint only overwrites the row it was built
+ * from; when a client save or compaction changed it meanwhile, the board is
+ * dropped and reloaded on next use. Every operation is in the op log, so a
+ * dropped or crashed board loses nothing.
+ *
+ * Each board also keeps a {@link WhiteboardTileIndex} of its operations, so a
+ * viewport can be loaded without the rest of the board.
+ *
+ * With cluster.enabled boards are not kept, since other nodes' operations
+ * never reach this one: every read loads the board from the database.
+ */
+@Component
+public class LiveWhiteboardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveWhiteboardCache.class);
+
+    @Autowired
+    private WhiteboardOpLog whiteboardOpLog;
+
+    @Autowired
+    private WhiteboardDataRepository whiteboardDataRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${whiteboard.live.max-boards:500}")
+    private int maxBoards;
+
+    @Value("${whiteboard.live.idle-evict-ms:300000}")
+    private long idleEvictMs;
+
+    @Value("${whiteboard.tiles.size:256}")
+    private int tileSize;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final LinkedHashMap<Long, LiveBoard> boards = new LinkedHashMap<>(64, 0.75f, true);
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder tileReads = new LongAdder();
+    private final LongAdder appliedOps = new LongAdder();
+    private final LongAdder checkpoints = new LongAdder();
+    private final LongAdder failedCheckpoints = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * The board as a late joiner should draw it.
+     */
+    public WhiteboardState get(Long teamId) {
+        if (clusterEnabled) {
+            reads.increment();
+            return loadState(teamId);
+        }
+        LiveBoard board = acquire(teamId);
+        reads.increment();
+        synchronized (board) {
+            return new WhiteboardState(teamId, board.dataJson, new ArrayList<>(board.ops), board.seq);
+        }
+    }
+
+    /**
+     * The non-empty tiles of a region of the board. Tiles at or below version
+     * {@code since} are sent without their operations.
+     */
+    public WhiteboardTiles getTiles(Long teamId, double minX, double minY, double maxX, double maxY, long since) {
+        if (clusterEnabled) {
+            tileReads.increment();
+            WhiteboardState state = loadState(teamId);
+            WhiteboardTileIndex index = new WhiteboardTileIndex(tileSize, state.getSeq());
+            state.getOps().forEach(index::add);
+            return new WhiteboardTiles(teamId, state.getSeq(), index.resetSeq(), index.tileSize(),
+                index.query(minX, minY, maxX, maxY, since), index.wide(since));
+        }
+        LiveBoard board = acquire(teamId);
+        tileReads.increment();
+        synchronized (board) {
+            WhiteboardTileIndex index = board.tiles;
+            return new WhiteboardTiles(teamId, board.seq, index.resetSeq(), index.tileSize(),
+                index.query(minX, minY, maxX, maxY, since), index.wide(since));
+        }
+    }
+
+    /**
+     * Log an operation, setting its seq, and apply it to the team's board.
+     */
+    public long record(Long teamId, WhiteboardDrawEvent event) {
+        if (clusterEnabled) {
+            return whiteboardOpLog.append(teamId, event);
+        }
+        while (true) {
+            LiveBoard board = acquire(teamId);
+            synchronized (board) {
+                // Evicted meanwhile: the replacement must load after this operation is logged
+                if (board.detached) {
+                    continue;
+                }
+                long seq = whiteboardOpLog.append(teamId, event);
+                board.apply(event);
+                appliedOps.increment();
+                return seq;
+            }
+        }
+    }
+
+    public boolean isLive(Long teamId) {
+        synchronized (boards) {
+            return boards.containsKey(teamId);
+        }
+    }
+
+    /**
+     * Forget a team's board without writing it back, once the surrounding
+     * transaction commits. Used when the snapshot was replaced or deleted.
+     */
+    public void discard(Long teamId) {
+        afterCommit(() -> {
+            LiveBoard board;
+            synchronized (boards) {
+                board = boards.get(teamId);
+            }
+            if (board != null) {
+                evict(board, false);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.live.checkpoint-interval-ms:10000}",
+        initialDelayString = "${whiteboard.live.checkpoint-interval-ms:10000}")
+    public void checkpoint() {
+        // Operations a checkpoint covers must be inserted before it truncates the log
+        whiteboardOpLog.flush();
+        long idleSince = System.currentTimeMillis() - idleEvictMs;
+        List<LiveBoard> live;
+        synchronized (boards) {
+            live = new ArrayList<>(boards.values());
+        }
+        for (LiveBoard board : live) {
+            if (board.lastAccess < idleSince) {
+                evict(board, true);
+            } else {
+                save(board);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        whiteboardOpLog.flush();
+        List<LiveBoard> live;
+        synchronized (boards) {
+            live = new ArrayList<>(boards.values());
+        }
+        for (LiveBoard board : live) {
+            save(board);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int dirty = 0;
+        List<LiveBoard> live;
+        synchronized (boards) {
+            live = new ArrayList<>(boards.values());
+        }
+        for (LiveBoard board : live) {
+            synchronized (board) {
+                dirty += board.dirty ? 1 : 0;
+            }
+        }
+        stats.put("boards", live.size());
+        stats.put("dirtyBoards", dirty);
+        stats.put("maxBoards", maxBoards);
+        stats.put("loads", loads.sum());
+        stats.put("reads", reads.sum());
+        stats.put("tileReads", tileReads.sum());
+        stats.put("tileSize", tileSize);
+        stats.put("appliedOps", appliedOps.sum());
+        stats.put("checkpoints", checkpoints.sum());
+        stats.put("failedCheckpoints", failedCheckpoints.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private LiveBoard acquire(Long teamId) {
+        LiveBoard board;
+        synchronized (boards) {
+            board = boards.computeIfAbsent(teamId, id -> new LiveBoard(id, tileSize));
+            board.lastAccess = System.currentTimeMillis();
+        }
+        synchronized (board) {
+            if (!board.loaded) {
+                WhiteboardOpLog.LoadedBoard loaded = whiteboardOpLog.load(teamId);
+                board.baseSeq = loaded.snapshotSeq();
+                board.dataJson = loaded.state().getDataJson();
+                board.ops = new ArrayList<>(loaded.state().getOps());
+                board.seq = loaded.state().getSeq();
+                // Versions from before the load are unknown, so tiles cached earlier are stale
+                board.tiles = new WhiteboardTileIndex(board.tileSize, board.seq);
+                board.ops.forEach(board.tiles::add);
+                board.dirty = board.seq > board.baseSeq;
+                board.loaded = true;
+                loads.increment();
+            }
+        }
+        enforceCap();
+        return board;
+    }
+
+    private WhiteboardState loadState(Long teamId) {
+        loads.increment();
+        return whiteboardOpLog.load(teamId).state();
+    }
+
+    private void enforceCap() {
+        List<LiveBoard> victims = new ArrayList<>();
+        synchronized (boards) {
+            int excess = boards.size() - maxBoards;
+            Iterator<LiveBoard> iterator = boards.values().iterator();
+            // Keep at least the most recently used board
+            while (excess > 0 && boards.size() - victims.size() > 1 && iterator.hasNext()) {
+                victims.add(iterator.next());
+                excess--;
+            }
+        }
+        for (LiveBoard victim : victims) {
+            evict(victim, true);
+        }
+    }
+
+    private void evict(LiveBoard board, boolean save) {
+        synchronized (board) {
+            if (board.detached) {
+                return;
+            }
+            // Removed under the board's monitor, so no operation is applied to it unlogged by its replacement
+            board.detached = true;
+            synchronized (boards) {
+                boards.remove(board.teamId, board);
+            }
+        }
+        evictions.increment();
+        if (save) {
+            save(board);
+        }
+    }
+
+    /**
+     * Write a dirty board back to its snapshot. Serialized, so a board's baseSeq
+     * only changes here.
+     */
+    private synchronized void save(LiveBoard board) {
+        Checkpoint checkpoint;
+        synchronized (board) {
+            if (!board.loaded || !board.dirty) {
+                return;
+            }
+            checkpoint = new Checkpoint(board.baseSeq, board.dataJson, new ArrayList<>(board.ops), board.seq);
+        }
+
+        Boolean written;
+        try {
+            written = transactionTemplate.execute(status -> write(board.teamId, checkpoint));
+        } catch (RuntimeException e) {
+            failedCheckpoints.increment();
+            logger.warn("Checkpointing the whiteboard of team {} failed: {}", board.teamId, e.getMessage());
+            return;
+        }
+        if (!Boolean.TRUE.equals(written)) {
+            conflicts.increment();
+            evict(board, false);
+            return;
+        }
+        synchronized (board) {
+            board.baseSeq = checkpoint.seq();
+            board.dirty = board.seq > checkpoint.seq();
+        }
+        checkpoints.increment();
+    }
+
+    private boolean write(Long teamId, Checkpoint checkpoint) {
+        Team team = teamRepository.findById(teamId).orElse(null);
+        if (team == null) {
+            return false;
+        }
+        WhiteboardData data = whiteboardDataRepository.findForUpdateByTeamId(teamId).orElse(null);
+        long lastOpSeq = data != null && data.getLastOpSeq() != null ? data.getLastOpSeq() : 0;
+        if (lastOpSeq != checkpoint.baseSeq()) {
+            return false;
+        }
+        if (data == null) {
+            data = new WhiteboardData(team, null);
+        }
+        data.setDataJson(checkpoint.dataJson());
+        data.setOpsJson(whiteboardOpLog.writeOps(checkpoint.ops()));
+        data.setLastOpSeq(checkpoint.seq());
+        whiteboardDataRepository.save(data);
+        whiteboardOpLog.truncate(teamId, checkpoint.seq());
+        return true;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * One team's board: the canvas and operations through seq. baseSeq is the
+     * lastOpSeq of the snapshot row it was loaded from or last written to.
+     * Guarded by its own monitor.
+     */
+    private static class LiveBoard {
+        private final Long teamId;
+        private final int tileSize;
+        private String dataJson;
+        private List<WhiteboardDrawEvent> ops;
+        private WhiteboardTileIndex tiles;
+        private long seq;
+        private long baseSeq;
+        private boolean dirty;
+        private volatile long lastAccess;
+        private boolean loaded;
+        private boolean detached;
+
+        private LiveBoard(Long teamId, int tileSize) {
+            this.teamId = teamId;
+            this.tileSize = tileSize;
+        }
+
+        // Same folding as a compaction: a clear drops the canvas and every earlier operation
+        private void apply(WhiteboardDrawEvent op) {
+            if ("clear".equals(op.getType())) {
+                dataJson = "{}";
+                ops.clear();
+                tiles.reset(op.getSeq());
+            } else {
+                ops.add(op);
+                tiles.add(op);
+            }
+            seq = op.getSeq();
+            dirty = true;
+        }
+    }
+
+    private record Checkpoint(long baseSeq, String dataJson, List<WhiteboardDrawEvent> ops, long seq) {}
+}
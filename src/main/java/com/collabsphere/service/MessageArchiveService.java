@@ -0,0 +1,496 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.ChatMessageResponse;
+import com.collabsphere.entity.MessageArchiveSegment;
+import com.collabsphere.repository.MessageArchiveSegmentRepository;
+import com.collabsphere.repository.MessageRepository;
+import com.collabsphere.repository.TeamRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cold storage for old chat messages. A nightly job moves each team's oldest
+ * messages, those past max-age-days but never the newest keep-per-team, out
+ * of the messages table into gzip-compressed segments of segment-size
+ * messages. The archive of a team is therefore always a seq prefix of its
+ * history.
+ *
+ * The segment index (seq, timestamp and id ranges, no data) is kept in memory
+ * per team, so reads that stay in the hot table cost nothing extra and reads
+ * that reach back only decompress the segments that can match. Other nodes
+ * would neither see a new segment nor be kept from writing the same one, so
+ * MultiNodeStateCheck refuses chat.archive.enabled with a shared broker.
+ */
+@Service
+public class MessageArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageArchiveService.class);
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int DECODED_SEGMENTS = 16;
+
+    public static final Comparator<ChatMessageResponse> KEY_ORDER =
+        Comparator.comparing(ChatMessageResponse::getTimestamp).thenComparing(ChatMessageResponse::getId);
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageArchiveSegmentRepository segmentRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${chat.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.archive.max-age-days:180}")
+    private int maxAgeDays;
+
+    @Value("${chat.archive.keep-per-team:1000}")
+    private int keepPerTeam;
+
+    @Value("${chat.archive.segment-size:1000}")
+    private int segmentSize;
+
+    @Value("${chat.cache.messages-per-team:200}")
+    private int cachedPerTeam;
+
+    private final Map<Long, List<SegmentInfo>> indexes = new ConcurrentHashMap<>();
+
+    // Paging back through the archive reads the same segment many times in a row
+    private final LinkedHashMap<Long, List<ChatMessageResponse>> decoded = new LinkedHashMap<>(32, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, List<ChatMessageResponse>> eldest) {
+            return size() > DECODED_SEGMENTS;
+        }
+    };
+
+    private final LongAdder runs = new LongAdder();
+    private final LongAdder archivedMessages = new LongAdder();
+    private final LongAdder writtenSegments = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder compressedBytes = new LongAdder();
+    private final LongAdder segmentLoads = new LongAdder();
+
+    @Scheduled(cron = "${chat.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archiveOlderThan(LocalDateTime.now().minusDays(maxAgeDays));
+        }
+    }
+
+    /**
+     * Archive every team's messages older than the cutoff, keeping the newest keep-per-team hot.
+     *
+     * @return the number of messages archived
+     */
+    public int archiveOlderThan(LocalDateTime cutoff) {
+        int total = 0;
+        for (Long teamId : messageRepository.findTeamIdsWithMessagesBefore(cutoff)) {
+            total += archiveTeam(teamId, cutoff);
+        }
+        runs.increment();
+        if (total > 0) {
+            logger.info("Archived {} chat messages older than {}", total, cutoff);
+        }
+        return total;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void removeTeam(Long teamId) {
+        segmentRepository.deleteByTeamId(teamId);
+        afterCommit(() -> indexes.remove(teamId));
+    }
+
+    /**
+     * Highest archived seq of the team, or 0 when nothing is archived.
+     */
+    public long getArchivedThroughSeq(Long teamId) {
+        List<SegmentInfo> segments = index(teamId);
+        return segments.isEmpty() ? 0 : segments.get(segments.size() - 1).lastSeq;
+    }
+
+    /**
+     * Newest archived timestamp of the team, or null when nothing is archived.
+     */
+    public LocalDateTime getNewestTimestamp(Long teamId) {
+        LocalDateTime newest = null;
+        for (SegmentInfo segment : index(teamId)) {
+            if (newest == null || segment.maxTimestamp.isAfter(newest)) {
+                newest = segment.maxTimestamp;
+            }
+        }
+        return newest;
+    }
+
+    public List<ChatMessageResponse> getAll(Long teamId) {
+        List<ChatMessageResponse> result = new ArrayList<>();
+        forEach(teamId, result::add);
+        result.sort(KEY_ORDER);
+        return result;
+    }
+
+    public List<ChatMessageResponse> getSince(Long teamId, LocalDateTime since) {
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (SegmentInfo segment : index(teamId)) {
+            if (!segment.maxTimestamp.isBefore(since)) {
+                collect(teamId, segment, message -> !message.getTimestamp().isBefore(since), result);
+            }
+        }
+        result.sort(KEY_ORDER);
+        return result;
+    }
+
+    /**
+     * Up to {@code count} archived messages before the (timestamp, id) cursor,
+     * or the newest when it is null, newest first.
+     */
+    public List<ChatMessageResponse> getBefore(Long teamId, LocalDateTime timestamp, Long id, int count) {
+        List<SegmentInfo> segments = new ArrayList<>(index(teamId));
+        segments.sort(Comparator.comparing((SegmentInfo segment) -> segment.maxTimestamp).reversed());
+        Comparator<ChatMessageResponse> order = KEY_ORDER.reversed();
+
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (SegmentInfo segment : segments) {
+            if (timestamp != null && segment.minTimestamp.isAfter(timestamp)) {
+                continue;
+            }
+            // Later segments only hold older messages than the count-th one found so far
+            if (result.size() >= count && segment.maxTimestamp.isBefore(result.get(count - 1).getTimestamp())) {
+                break;
+            }
+            collect(teamId, segment, message -> timestamp == null || compare(message, timestamp, id) < 0, result);
+            result.sort(order);
+        }
+        return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+    }
+
+    /**
+     * Up to {@code count} archived messages after the (timestamp, id) cursor, oldest first.
+     */
+    public List<ChatMessageResponse> getAfter(Long teamId, LocalDateTime timestamp, Long id, int count) {
+        List<SegmentInfo> segments = new ArrayList<>(index(teamId));
+        segments.sort(Comparator.comparing((SegmentInfo segment) -> segment.minTimestamp));
+
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (SegmentInfo segment : segments) {
+            if (segment.maxTimestamp.isBefore(timestamp)) {
+                continue;
+            }
+            if (result.size() >= count && segment.minTimestamp.isAfter(result.get(count - 1).getTimestamp())) {
+                break;
+            }
+            collect(teamId, segment, message -> compare(message, timestamp, id) > 0, result);
+            result.sort(KEY_ORDER);
+        }
+        return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+    }
+
+    /**
+     * Up to {@code count} archived messages with seq after {@code afterSeq}, in seq order.
+     */
+    public List<ChatMessageResponse> getAfterSeq(Long teamId, long afterSeq, int count) {
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (SegmentInfo segment : index(teamId)) {
+            if (result.size() >= count) {
+                break;
+            }
+            if (segment.lastSeq > afterSeq) {
+                collect(teamId, segment, message -> message.getSeq() > afterSeq, result);
+            }
+        }
+        return result.size() > count ? new ArrayList<>(result.subList(0, count)) : result;
+    }
+
+    public List<ChatMessageResponse> findByIds(Long teamId, Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        List<ChatMessageResponse> result = new ArrayList<>();
+        for (SegmentInfo segment : index(teamId)) {
+            boolean candidate = wanted.stream()
+                .anyMatch(id -> id >= segment.minMessageId && id <= segment.maxMessageId);
+            if (candidate) {
+                collect(teamId, segment, message -> wanted.contains(message.getId()), result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Every archived message of the team in seq order, one segment in memory at a time.
+     */
+    public void forEach(Long teamId, Consumer<ChatMessageResponse> action) {
+        for (SegmentInfo segment : index(teamId)) {
+            load(teamId, segment).forEach(action);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxAgeDays", maxAgeDays);
+        stats.put("runs", runs.sum());
+        stats.put("archivedMessages", archivedMessages.sum());
+        stats.put("writtenSegments", writtenSegments.sum());
+        stats.put("rawBytes", rawBytes.sum());
+        stats.put("compressedBytes", compressedBytes.sum());
+        stats.put("indexedTeams", indexes.size());
+        stats.put("segmentLoads", segmentLoads.sum());
+        return stats;
+    }
+
+    private int archiveTeam(Long teamId, LocalDateTime cutoff) {
+        Long maxSeq = messageRepository.findMaxSeq(teamId);
+        Long oldestSeq = messageRepository.findMaxSeqBefore(teamId, cutoff);
+        if (maxSeq == null || oldestSeq == null) {
+            return 0;
+        }
+        // The newest messages stay hot, so recent reads and the message cache never need the archive
+        long throughSeq = Math.min(oldestSeq, maxSeq - Math.max(keepPerTeam, cachedPerTeam));
+
+        int archived = 0;
+        while (true) {
+            SegmentInfo segment = transactionTemplate.execute(status -> archiveSegment(teamId, throughSeq));
+            if (segment == null) {
+                break;
+            }
+            indexes.computeIfPresent(teamId, (id, segments) -> {
+                List<SegmentInfo> updated = new ArrayList<>(segments);
+                updated.add(segment);
+                return List.copyOf(updated);
+            });
+            archived += segment.count;
+        }
+        if (archived > 0) {
+            recentMessageCache.evictTeam(teamId);
+        }
+        return archived;
+    }
+
+    // Runs in its own transaction: the segment insert and the row delete commit together
+    private SegmentInfo archiveSegment(Long teamId, long throughSeq) {
+        List<ChatMessageResponse> messages =
+            messageRepository.findOldestThroughSeq(teamId, throughSeq, PageRequest.of(0, segmentSize));
+        if (messages.isEmpty()) {
+            return null;
+        }
+
+        byte[] raw = encode(messages);
+        byte[] compressed = compress(raw);
+        MessageArchiveSegment segment = new MessageArchiveSegment();
+        segment.setTeamId(teamId);
+        segment.setFirstSeq(messages.get(0).getSeq());
+        segment.setLastSeq(messages.get(messages.size() - 1).getSeq());
+        segment.setMinTimestamp(messages.stream().map(ChatMessageResponse::getTimestamp)
+            .min(Comparator.naturalOrder()).orElseThrow());
+        segment.setMaxTimestamp(messages.stream().map(ChatMessageResponse::getTimestamp)
+            .max(Comparator.naturalOrder()).orElseThrow());
+        segment.setMinMessageId(messages.stream().mapToLong(ChatMessageResponse::getId).min().orElseThrow());
+        segment.setMaxMessageId(messages.stream().mapToLong(ChatMessageResponse::getId).max().orElseThrow());
+        segment.setMessageCount(messages.size());
+        segment.setRawBytes(raw.length);
+        segment.setData(compressed);
+        segment = segmentRepository.save(segment);
+
+        messageRepository.deleteByIds(messages.stream().map(ChatMessageResponse::getId).toList());
+
+        archivedMessages.add(messages.size());
+        writtenSegments.increment();
+        rawBytes.add(raw.length);
+        compressedBytes.add(compressed.length);
+        return new SegmentInfo(segment.getId(), segment.getFirstSeq(), segment.getLastSeq(),
+            segment.getMinTimestamp(), segment.getMaxTimestamp(), segment.getMinMessageId(),
+            segment.getMaxMessageId(), segment.getMessageCount());
+    }
+
+    private List<SegmentInfo> index(Long teamId) {
+        return indexes.computeIfAbsent(teamId, id -> {
+            List<SegmentInfo> segments = new ArrayList<>();
+            for (Object[] row : segmentRepository.findIndexByTeamId(id)) {
+                segments.add(new SegmentInfo((Long) row[0], (Long) row[1], (Long) row[2],
+                    (LocalDateTime) row[3], (LocalDateTime) row[4], (Long) row[5], (Long) row[6], (Integer) row[7]));
+            }
+            return List.copyOf(segments);
+        });
+    }
+
+    private void collect(Long teamId, SegmentInfo segment, Predicate<ChatMessageResponse> filter,
+                         List<ChatMessageResponse> result) {
+        for (ChatMessageResponse message : load(teamId, segment)) {
+            if (filter.test(message)) {
+                result.add(message);
+            }
+        }
+    }
+
+    private List<ChatMessageResponse> load(Long teamId, SegmentInfo segment) {
+        synchronized (decoded) {
+            List<ChatMessageResponse> messages = decoded.get(segment.id);
+            if (messages != null) {
+                return messages;
+            }
+        }
+        byte[] data = segmentRepository.findDataById(segment.id);
+        if (data == null) {
+            // Removed together with its team
+            return List.of();
+        }
+        String teamName = teamRepository.findNameById(teamId).orElse(null);
+        List<ChatMessageResponse> messages = decode(decompress(data), teamId, teamName);
+        segmentLoads.increment();
+        synchronized (decoded) {
+            decoded.put(segment.id, messages);
+        }
+        return messages;
+    }
+
+    private static int compare(ChatMessageResponse message, LocalDateTime timestamp, Long id) {
+        int result = message.getTimestamp().compareTo(timestamp);
+        return result != 0 ? result : message.getId().compareTo(id);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /*
+     * Segment format: version, count, then per message id, seq, epoch second and
+     * nano of the timestamp, sender id, sender name and content. The team is
+     * implied by the segment; names are as of archival.
+     */
+    private static byte[] encode(List<ChatMessageResponse> messages) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(messages.size() * 128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(messages.size());
+            for (ChatMessageResponse message : messages) {
+                out.writeLong(message.getId());
+                out.writeLong(message.getSeq());
+                out.writeLong(message.getTimestamp().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(message.getTimestamp().getNano());
+                out.writeLong(message.getSenderId());
+                writeString(out, message.getSenderName());
+                writeString(out, message.getContent());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ChatMessageResponse> decode(byte[] data, Long teamId, String teamName) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unknown archive segment format " + version);
+            }
+            int count = in.readInt();
+            List<ChatMessageResponse> messages = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                long seq = in.readLong();
+                LocalDateTime timestamp = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                long senderId = in.readLong();
+                String senderName = readString(in);
+                String content = readString(in);
+                messages.add(new ChatMessageResponse(id, content, teamId, teamName, senderId, senderName,
+                    timestamp, seq));
+            }
+            return List.copyOf(messages);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] compress(byte[] raw) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record SegmentInfo(Long id, long firstSeq, long lastSeq, LocalDateTime minTimestamp,
+                               LocalDateTime maxTimestamp, long minMessageId, long maxMessageId, int count) {}
+}
@@ -0,0 +1,158 @@
+package com.collabsphere.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Hands out per-team message sequence numbers from in-memory counters seeded
+ * from MAX(seq), so assignment takes only a per-team monitor (single writer
+ * node; the unique (team_id, seq) index rejects anything else).
+ *
+ * Each team also tracks in-flight numbers until their insert commits or fails.
+ * {@link #committedHead} is the highest seq below every in-flight one, so a
+ * client that syncs up to it can never skip a message that commits later.
+ *
+ * With cluster.enabled the counters live in the database instead: a seq is
+ * MAX(seq) + 1 read under a lock on the team row, held until the message
+ * commits, so numbers commit in order on every node and the committed head is
+ * simply MAX(seq). Callers must then number messages inside a read-committed
+ * transaction.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MessageSequencer {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final Map<Long, TeamSequence> sequences = new ConcurrentHashMap<>();
+
+    /**
+     * Number the messages stored before sequences existed, per team in (timestamp, id) order.
+     */
+    @PostConstruct
+    public void backfill() {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT id, team_id FROM messages WHERE seq IS NULL ORDER BY team_id, timestamp, id");
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> lastSeq = new HashMap<>();
+        List<Object[]> updates = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Long teamId = ((Number) row.get("team_id")).longValue();
+            long seq = lastSeq.computeIfAbsent(teamId, this::loadMaxSeq) + 1;
+            lastSeq.put(teamId, seq);
+            updates.add(new Object[] { seq, ((Number) row.get("id")).longValue() });
+        }
+        jdbcTemplate.batchUpdate("UPDATE messages SET seq = ? WHERE id = ?", updates);
+    }
+
+    /**
+     * Reserve the next sequence number of a team. It stays in flight until
+     * {@link #complete} is called.
+     */
+    public long next(Long teamId) {
+        if (clusterEnabled) {
+            return nextShared(teamId);
+        }
+        return sequence(teamId).next();
+    }
+
+    public void complete(Long teamId, long seq) {
+        if (clusterEnabled) {
+            return;
+        }
+        sequence(teamId).inFlight.remove(seq);
+    }
+
+    /**
+     * Complete the sequence number when the surrounding transaction ends, whether it commits or not.
+     */
+    public void completeAfterTransaction(Long teamId, long seq) {
+        if (clusterEnabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(teamId, seq);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(teamId, seq);
+            }
+        });
+    }
+
+    public long committedHead(Long teamId) {
+        if (clusterEnabled) {
+            return loadMaxSeq(teamId);
+        }
+        return sequence(teamId).committedHead();
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    public int size() {
+        return sequences.size();
+    }
+
+    private TeamSequence sequence(Long teamId) {
+        return sequences.computeIfAbsent(teamId, id -> new TeamSequence(loadMaxSeq(id)));
+    }
+
+    private long nextShared(Long teamId) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Shared message sequences need a transaction");
+        }
+        // Held until commit: the next sender on any node reads MAX(seq) only after this message is stored
+        jdbcTemplate.queryForObject("SELECT id FROM teams WHERE id = ? FOR UPDATE", Long.class, teamId);
+        return loadMaxSeq(teamId) + 1;
+    }
+
+    private long loadMaxSeq(Long teamId) {
+        Long max = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(MAX(seq), 0) FROM messages WHERE team_id = ?", Long.class, teamId);
+        return max != null ? max : 0;
+    }
+
+    private static class TeamSequence {
+        private long last;
+        private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+
+        private TeamSequence(long last) {
+            this.last = last;
+        }
+
+        // Assignment and registration happen together so committedHead never sees a half-registered seq
+        private synchronized long next() {
+            long seq = ++last;
+            inFlight.add(seq);
+            return seq;
+        }
+
+        private synchronized long committedHead() {
+            return inFlight.isEmpty() ? last : inFlight.first() - 1;
+        }
+    }
+}
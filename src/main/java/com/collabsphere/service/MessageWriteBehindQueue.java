@@ -0,0 +1,246 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.ChatMessageResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional write-behind persistence for chat messages. Ids are allocated in
+ * memory (seeded from MAX(id), so this assumes a single writer node), messages
+ * are queued and a background thread inserts them with JDBC batches. A full
+ * queue blocks senders up to offer-timeout-ms; the queue is drained on shutdown.
+ * Messages stay readable through {@link #getUnsaved} until their batch commits.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class MessageWriteBehindQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageWriteBehindQueue.class);
+
+    private static final String INSERT_SQL =
+        "INSERT INTO messages (id, content, timestamp, sender_id, team_id, seq) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MessageSequencer messageSequencer;
+
+    @Value("${chat.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${chat.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMillis;
+
+    @Value("${chat.write-behind.offer-timeout-ms:500}")
+    private long offerTimeoutMillis;
+
+    private BlockingQueue<ChatMessageResponse> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong nextId = new AtomicLong();
+
+    // Queued or being flushed, by id
+    private final Map<Long, ChatMessageResponse> unsaved = new ConcurrentHashMap<>();
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder flushedMessages = new LongAdder();
+    private final LongAdder flushedBatches = new LongAdder();
+    private final LongAdder lostMessages = new LongAdder();
+    private final LongAdder totalFlushNanos = new LongAdder();
+    private final AtomicLong maxFlushNanos = new AtomicLong();
+    private volatile long lastFlushNanos;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM messages", Long.class);
+        nextId.set(maxId != null ? maxId : 0);
+
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::writeLoop, "chat-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long nextId() {
+        return nextId.incrementAndGet();
+    }
+
+    /**
+     * Queue a message for insertion, blocking while the queue is full. Its
+     * sequence number is completed once the row is written or the message is
+     * rejected or given up on.
+     *
+     * @return false when the queue stayed full for offer-timeout-ms
+     */
+    public boolean enqueue(ChatMessageResponse message) {
+        if (!running) {
+            messageSequencer.complete(message.getTeamId(), message.getSeq());
+            throw new IllegalStateException("Chat write-behind queue is not running");
+        }
+        unsaved.put(message.getId(), message);
+        try {
+            if (queue.offer(message, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                enqueued.increment();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        unsaved.remove(message.getId());
+        rejected.increment();
+        messageSequencer.complete(message.getTeamId(), message.getSeq());
+        return false;
+    }
+
+    /**
+     * A team's messages that are queued or being written but not yet committed.
+     */
+    public List<ChatMessageResponse> getUnsaved(Long teamId) {
+        List<ChatMessageResponse> messages = new ArrayList<>();
+        for (ChatMessageResponse message : unsaved.values()) {
+            if (message.getTeamId().equals(teamId)) {
+                messages.add(message);
+            }
+        }
+        return messages;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        if (!queue.isEmpty()) {
+            logger.error("Chat write-behind stopped with {} unsaved messages", queue.size());
+        }
+    }
+
+    private void writeLoop() {
+        List<ChatMessageResponse> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                ChatMessageResponse first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Shutdown: keep looping until the queue is drained
+                if (queue.isEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<ChatMessageResponse> batch) {
+        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+            long start = System.nanoTime();
+            try {
+                // One transaction, so a failed attempt leaves nothing behind and the retry resends the whole batch
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, message) -> {
+                        ps.setLong(1, message.getId());
+                        ps.setString(2, message.getContent());
+                        ps.setTimestamp(3, Timestamp.valueOf(message.getTimestamp()));
+                        ps.setLong(4, message.getSenderId());
+                        ps.setLong(5, message.getTeamId());
+                        ps.setLong(6, message.getSeq());
+                    }));
+                recordFlush(System.nanoTime() - start, batch.size());
+                complete(batch);
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Chat write-behind flush of {} messages failed (attempt {}): {}",
+                    batch.size(), attempt, e.getMessage());
+            }
+        }
+        lostMessages.add(batch.size());
+        logger.error("Dropped {} chat messages after {} failed flush attempts", batch.size(), MAX_ATTEMPTS);
+        complete(batch);
+    }
+
+    private void complete(List<ChatMessageResponse> batch) {
+        for (ChatMessageResponse message : batch) {
+            unsaved.remove(message.getId());
+            messageSequencer.complete(message.getTeamId(), message.getSeq());
+        }
+    }
+
+    private void recordFlush(long nanos, int count) {
+        lastFlushNanos = nanos;
+        totalFlushNanos.add(nanos);
+        maxFlushNanos.accumulateAndGet(nanos, Math::max);
+        flushedBatches.increment();
+        flushedMessages.add(count);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        long batches = flushedBatches.sum();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("enqueued", enqueued.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("flushedMessages", flushedMessages.sum());
+        stats.put("flushedBatches", batches);
+        stats.put("lostMessages", lostMessages.sum());
+        stats.put("lastFlushMillis", lastFlushNanos / 1_000_000.0);
+        stats.put("maxFlushMillis", maxFlushNanos.get() / 1_000_000.0);
+        stats.put("avgFlushMillis", batches == 0 ? 0 : totalFlushNanos.sum() / batches / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,407 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.PresenceState;
+import com.collabsphere.dto.PresenceUpdate;
+import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.security.StompAuthChannelInterceptor;
+import com.collabsphere.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Online and typing presence per team, kept in memory from STOMP
+ * connect/disconnect events and typing frames. A connected user is online in
+ * every team they belong to; missed STOMP heartbeats end in a disconnect event.
+ *
+ * Changes are only marked, and every tick-ms each changed team gets one
+ * {@link PresenceUpdate} on /topic/team/{teamId}/presence holding the users
+ * whose state differs from the previous broadcast. Keystrokes repeating a
+ * typing signal cost a map lookup, not a frame.
+ *
+ * A user removed from a team goes offline there, like their STOMP grants,
+ * unless their role gives access to every team.
+ *
+ * With cluster.enabled each session is also a row in presence_sessions,
+ * refreshed every presence-heartbeat-ms by its node. The baseline adds the
+ * members connected to other nodes, and a user leaving this node is only
+ * reported offline once no other node has a session of theirs. Rows not
+ * refreshed for three heartbeats belong to a node that is gone; whichever
+ * node prunes them reports their users offline.
+ */
+@Component
+public class PresenceService {
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${websocket.presence.typing-timeout-ms:5000}")
+    private long typingTimeoutMillis;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    @Value("${cluster.presence-heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+    private final Map<Long, TeamPresence> teams = new ConcurrentHashMap<>();
+    private final Set<Long> changedTeams = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder typingSignals = new LongAdder();
+    private final LongAdder broadcasts = new LongAdder();
+    private final LongAdder broadcastChanges = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        teamMembershipIndex.addRemovalListener(this::leaveTeam);
+    }
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        UserPrincipal user = StompAuthChannelInterceptor.getUserPrincipal(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+        boolean privileged = user.getRole() == UserRole.ADMIN || user.getRole() == UserRole.LECTURER;
+        SessionPresence session = new SessionPresence(user.getId(), user.getFullName(), privileged);
+        sessions.put(sessionId, session);
+        if (clusterEnabled) {
+            jdbcTemplate.update("INSERT INTO presence_sessions (node_id, session_id, user_id, seen_at) VALUES (?, ?, ?, ?)",
+                nodeId, sessionId, user.getId(), System.currentTimeMillis());
+        }
+        for (long teamId : teamMembershipIndex.getTeamIds(user.getId())) {
+            join(session, teamId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        SessionPresence session = sessions.remove(event.getSessionId());
+        if (session == null) {
+            return;
+        }
+        if (clusterEnabled) {
+            jdbcTemplate.update("DELETE FROM presence_sessions WHERE node_id = ? AND session_id = ?",
+                nodeId, event.getSessionId());
+        }
+        for (Long teamId : session.teamIds()) {
+            TeamPresence team = teams.get(teamId);
+            if (team != null && team.leave(session.userId)) {
+                changedTeams.add(teamId);
+            }
+        }
+    }
+
+    /**
+     * Take a user removed from a team out of its presence.
+     */
+    public void leaveTeam(Long userId, Long teamId) {
+        TeamPresence team = teams.get(teamId);
+        for (SessionPresence session : sessions.values()) {
+            if (session.userId.equals(userId) && !session.privileged && session.teamIds.remove(teamId)
+                && team != null && team.leave(userId)) {
+                changedTeams.add(teamId);
+            }
+        }
+    }
+
+    /**
+     * Record a typing signal from an authorized session. Typing ends after
+     * typing-timeout-ms without another signal.
+     */
+    public void typing(String sessionId, Long teamId, boolean typing) {
+        SessionPresence session = sessionId != null ? sessions.get(sessionId) : null;
+        if (session == null) {
+            return;
+        }
+        typingSignals.increment();
+        // Lecturers and admins become present in a team they are not members of by typing in it
+        join(session, teamId);
+        long typingUntil = typing ? System.currentTimeMillis() + typingTimeoutMillis : 0;
+        if (teams.get(teamId).setTyping(session.userId, typingUntil)) {
+            changedTeams.add(teamId);
+        }
+    }
+
+    /**
+     * Everyone currently online in a team, as a baseline for the deltas.
+     */
+    public List<PresenceState> getPresence(Long teamId, UserPrincipal user) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, teamId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN,
+                "You are not a member of this team");
+        }
+        TeamPresence team = teams.get(teamId);
+        long now = System.currentTimeMillis();
+        List<PresenceState> states = team != null ? team.snapshot(now) : new ArrayList<>();
+        if (clusterEnabled) {
+            Set<Long> userIds = new HashSet<>();
+            states.forEach(state -> userIds.add(state.getUserId()));
+            // Typing on other nodes only arrives as deltas
+            for (PresenceState state : onlineElsewhere(teamId, now)) {
+                if (userIds.add(state.getUserId())) {
+                    states.add(state);
+                }
+            }
+        }
+        return states;
+    }
+
+    @Scheduled(fixedRateString = "${websocket.presence.tick-ms:250}")
+    public void broadcastChanges() {
+        long now = System.currentTimeMillis();
+        Set<Long> due = new HashSet<>();
+        for (Iterator<Long> iterator = changedTeams.iterator(); iterator.hasNext(); ) {
+            due.add(iterator.next());
+            iterator.remove();
+        }
+        // Teams with someone typing are revisited so expired typing is reported
+        teams.forEach((teamId, team) -> {
+            if (team.hasTyping()) {
+                due.add(teamId);
+            }
+        });
+
+        for (Long teamId : due) {
+            TeamPresence team = teams.get(teamId);
+            if (team == null) {
+                continue;
+            }
+            List<PresenceState> changes = team.collectChanges(now);
+            if (clusterEnabled && changes.stream().anyMatch(state -> !state.isOnline())) {
+                Set<Long> elsewhere = new HashSet<>();
+                onlineElsewhere(teamId, now).forEach(state -> elsewhere.add(state.getUserId()));
+                changes.removeIf(state -> !state.isOnline() && elsewhere.contains(state.getUserId()));
+            }
+            if (!changes.isEmpty()) {
+                messagingTemplate.convertAndSend("/topic/team/" + teamId + "/presence",
+                    new PresenceUpdate(teamId, changes));
+                broadcasts.increment();
+                broadcastChanges.add(changes.size());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.presence-heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!clusterEnabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        jdbcTemplate.update("UPDATE presence_sessions SET seen_at = ? WHERE node_id = ?", now, nodeId);
+        long staleBefore = now - 3 * heartbeatMillis;
+        List<PresenceState> gone = jdbcTemplate.query(
+            "SELECT DISTINCT p.user_id, u.full_name FROM presence_sessions p JOIN users u ON u.id = p.user_id"
+                + " WHERE p.seen_at < ?",
+            (rs, row) -> new PresenceState(rs.getLong(1), rs.getString(2), false, false), staleBefore);
+        if (gone.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM presence_sessions WHERE seen_at < ?", staleBefore);
+        for (PresenceState state : gone) {
+            Integer left = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM presence_sessions WHERE user_id = ?", Integer.class, state.getUserId());
+            if (left != null && left > 0) {
+                continue;
+            }
+            for (long teamId : teamMembershipIndex.getTeamIds(state.getUserId())) {
+                messagingTemplate.convertAndSend("/topic/team/" + teamId + "/presence",
+                    new PresenceUpdate(teamId, List.of(state)));
+                broadcasts.increment();
+                broadcastChanges.increment();
+            }
+        }
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sessions", sessions.size());
+        stats.put("trackedTeams", teams.size());
+        stats.put("typingSignals", typingSignals.sum());
+        stats.put("broadcasts", broadcasts.sum());
+        stats.put("broadcastChanges", broadcastChanges.sum());
+        return stats;
+    }
+
+    /**
+     * Members of a team with a live session on another node.
+     */
+    private List<PresenceState> onlineElsewhere(Long teamId, long now) {
+        return jdbcTemplate.query(
+            "SELECT DISTINCT p.user_id, u.full_name FROM presence_sessions p"
+                + " JOIN team_members m ON m.user_id = p.user_id JOIN users u ON u.id = p.user_id"
+                + " WHERE m.team_id = ? AND p.node_id <> ? AND p.seen_at >= ?",
+            (rs, row) -> new PresenceState(rs.getLong(1), rs.getString(2), true, false),
+            teamId, nodeId, now - 3 * heartbeatMillis);
+    }
+
+    private void join(SessionPresence session, long teamId) {
+        if (!session.teamIds.add(teamId)) {
+            return;
+        }
+        if (teams.computeIfAbsent(teamId, id -> new TeamPresence()).join(session.userId, session.fullName)) {
+            changedTeams.add(teamId);
+        }
+    }
+
+    private static class SessionPresence {
+        private final Long userId;
+        private final String fullName;
+        private final boolean privileged;
+        private final Set<Long> teamIds = ConcurrentHashMap.newKeySet();
+
+        private SessionPresence(Long userId, String fullName, boolean privileged) {
+            this.userId = userId;
+            this.fullName = fullName;
+            this.privileged = privileged;
+        }
+
+        private List<Long> teamIds() {
+            return new ArrayList<>(teamIds);
+        }
+    }
+
+    /**
+     * Current and last broadcast state of a team's users. Guarded by its own
+     * monitor; kept once created, so joins never race with removal.
+     */
+    private static class TeamPresence {
+        private final Map<Long, Member> members = new HashMap<>();
+        private final Set<Long> changed = new HashSet<>();
+        private int typingCount;
+
+        /**
+         * @return true when the team has a change to broadcast
+         */
+        private synchronized boolean join(Long userId, String fullName) {
+            Member member = members.computeIfAbsent(userId, id -> new Member(fullName));
+            // Further sessions of an online user change nothing
+            if (++member.sessions > 1) {
+                return false;
+            }
+            changed.add(userId);
+            return true;
+        }
+
+        private synchronized boolean leave(Long userId) {
+            Member member = members.get(userId);
+            if (member == null || --member.sessions > 0) {
+                return false;
+            }
+            changed.add(userId);
+            return true;
+        }
+
+        private synchronized boolean setTyping(Long userId, long typingUntil) {
+            Member member = members.get(userId);
+            if (member == null) {
+                return false;
+            }
+            boolean wasTyping = member.typingUntil != 0;
+            boolean typing = typingUntil != 0;
+            member.typingUntil = typingUntil;
+            if (wasTyping == typing) {
+                return false;
+            }
+            typingCount += typing ? 1 : -1;
+            changed.add(userId);
+            return true;
+        }
+
+        private synchronized boolean hasTyping() {
+            return typingCount > 0;
+        }
+
+        private synchronized List<PresenceState> collectChanges(long now) {
+            // Expire typing first so it is reported in this tick
+            if (typingCount > 0) {
+                members.forEach((userId, member) -> {
+                    if (member.typingUntil != 0 && member.typingUntil <= now) {
+                        member.typingUntil = 0;
+                        typingCount--;
+                        changed.add(userId);
+                    }
+                });
+            }
+
+            List<PresenceState> changes = new ArrayList<>();
+            for (Long userId : changed) {
+                Member member = members.get(userId);
+                boolean online = member.sessions > 0;
+                boolean typing = online && member.typingUntil != 0;
+                if (online != member.sentOnline || typing != member.sentTyping) {
+                    changes.add(new PresenceState(userId, member.fullName, online, typing));
+                    member.sentOnline = online;
+                    member.sentTyping = typing;
+                }
+                if (!online) {
+                    if (member.typingUntil != 0) {
+                        typingCount--;
+                    }
+                    members.remove(userId);
+                }
+            }
+            changed.clear();
+            return changes;
+        }
+
+        private synchronized List<PresenceState> snapshot(long now) {
+            List<PresenceState> states = new ArrayList<>();
+            members.forEach((userId, member) -> {
+                if (member.sessions > 0) {
+                    boolean typing = member.typingUntil != 0 && member.typingUntil > now;
+                    states.add(new PresenceState(userId, member.fullName, true, typing));
+                }
+            });
+            return states;
+        }
+    }
+
+    private static class Member {
+        private final String fullName;
+        private int sessions;
+        private long typingUntil;
+        // State as of the last broadcast
+        private boolean sentOnline;
+        private boolean sentTyping;
+
+        private Member(String fullName) {
+            this.fullName = fullName;
+        }
+    }
+}
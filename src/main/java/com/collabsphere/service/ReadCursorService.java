@@ -0,0 +1,239 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.UnreadCount;
+import com.collabsphere.repository.ReadCursorRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-user read cursors for team chats. Cursors are held in memory (a user's
+ * are loaded on first use) and unread counts are the team's committed
+ * sequence head minus the cursor, so a badge needs no query. Seqs are never
+ * reused, so a gap left by a rolled back send or a dropped write-behind
+ * message makes that count an upper bound until the cursor passes the gap;
+ * counting rows instead would cost a query per team. Changed cursors
+ * are written back in JDBC batches every flush-interval-ms and on shutdown;
+ * a crash loses at most that window of read positions. Writes only ever move
+ * a stored cursor forward.
+ *
+ * With cluster.enabled other nodes move the same cursors, so nothing is held
+ * in memory: cursors are read from read_cursors on every call and written
+ * through right away.
+ */
+@Component
+public class ReadCursorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadCursorService.class);
+
+    private static final String UPDATE_SQL =
+        "UPDATE read_cursors SET last_read_seq = GREATEST(last_read_seq, ?), updated_at = ? WHERE user_id = ? AND team_id = ?";
+    private static final String INSERT_SQL =
+        "INSERT INTO read_cursors (last_read_seq, updated_at, user_id, team_id) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private ReadCursorRepository readCursorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MessageSequencer messageSequencer;
+
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final Map<Long, Map<Long, AtomicLong>> cursorsByUser = new ConcurrentHashMap<>();
+    private final Set<CursorKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedCursors = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    /**
+     * Unread counts for every team the user belongs to.
+     */
+    public List<UnreadCount> getUnreadCounts(Long userId) {
+        Map<Long, AtomicLong> cursors = cursors(userId);
+        List<UnreadCount> counts = new ArrayList<>();
+        for (long teamId : teamMembershipIndex.getTeamIds(userId)) {
+            AtomicLong cursor = cursors.get(teamId);
+            counts.add(unreadCount(teamId, cursor != null ? cursor.get() : 0));
+        }
+        return counts;
+    }
+
+    /**
+     * Move the user's cursor forward to {@code seq}, or to the newest
+     * committed message when it is null. Cursors never move backwards.
+     */
+    public UnreadCount markRead(Long userId, Long teamId, Long seq) {
+        long head = messageSequencer.committedHead(teamId);
+        long target = seq == null ? head : Math.min(seq, head);
+        return unreadCount(teamId, advance(userId, teamId, target));
+    }
+
+    /**
+     * A sender has read the chat up to their own message.
+     */
+    public void markSent(Long userId, Long teamId, long seq) {
+        if (clusterEnabled) {
+            // Written in the sender's transaction, so it rolls back with the message
+            write(List.<Object[]>of(row(userId, teamId, seq)));
+            return;
+        }
+        afterCommit(() -> advance(userId, teamId, seq));
+    }
+
+    public void removeTeam(Long teamId) {
+        readCursorRepository.deleteByTeamId(teamId);
+        afterCommit(() -> {
+            dirty.removeIf(key -> key.teamId().equals(teamId));
+            cursorsByUser.values().forEach(cursors -> cursors.remove(teamId));
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read-cursor.flush-interval-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<CursorKey> keys = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        for (CursorKey key : dirty) {
+            // Removed before reading, so an update racing with the flush marks it dirty again
+            dirty.remove(key);
+            Map<Long, AtomicLong> cursors = cursorsByUser.get(key.userId());
+            AtomicLong cursor = cursors != null ? cursors.get(key.teamId()) : null;
+            if (cursor != null) {
+                keys.add(key);
+                rows.add(row(key.userId(), key.teamId(), cursor.get()));
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            write(rows);
+            flushes.increment();
+            flushedCursors.add(rows.size());
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            dirty.addAll(keys);
+            logger.warn("Flushing {} read cursors failed: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("users", cursorsByUser.size());
+        stats.put("dirtyCursors", dirty.size());
+        stats.put("loads", loads.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("flushedCursors", flushedCursors.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+
+    // Counts seq gaps between the cursor and the head as unread
+    private UnreadCount unreadCount(Long teamId, long lastReadSeq) {
+        long unread = Math.max(0, messageSequencer.committedHead(teamId) - lastReadSeq);
+        return new UnreadCount(teamId, lastReadSeq, unread);
+    }
+
+    private long advance(Long userId, Long teamId, long seq) {
+        if (clusterEnabled) {
+            write(List.<Object[]>of(row(userId, teamId, seq)));
+            return jdbcTemplate.queryForObject(
+                "SELECT last_read_seq FROM read_cursors WHERE user_id = ? AND team_id = ?", Long.class, userId, teamId);
+        }
+        AtomicLong cursor = cursors(userId).computeIfAbsent(teamId, id -> new AtomicLong());
+        long previous = cursor.getAndAccumulate(seq, Math::max);
+        if (seq > previous) {
+            dirty.add(new CursorKey(userId, teamId));
+        }
+        return Math.max(previous, seq);
+    }
+
+    private Map<Long, AtomicLong> cursors(Long userId) {
+        if (clusterEnabled) {
+            return load(userId);
+        }
+        return cursorsByUser.computeIfAbsent(userId, this::load);
+    }
+
+    private Map<Long, AtomicLong> load(Long userId) {
+        Map<Long, AtomicLong> cursors = new ConcurrentHashMap<>();
+        for (Object[] row : readCursorRepository.findSeqsByUserId(userId)) {
+            cursors.put((Long) row[0], new AtomicLong((Long) row[1]));
+        }
+        loads.increment();
+        return cursors;
+    }
+
+    private static Object[] row(Long userId, Long teamId, long seq) {
+        return new Object[] { seq, Timestamp.valueOf(LocalDateTime.now()), userId, teamId };
+    }
+
+    private void write(List<Object[]> rows) {
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_SQL, rows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, rows.get(i));
+                } catch (DuplicateKeyException e) {
+                    // Inserted meanwhile by another node
+                    jdbcTemplate.update(UPDATE_SQL, rows.get(i));
+                }
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private record CursorKey(Long userId, Long teamId) {}
+}
@@ -0,0 +1,367 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.ChatMessageResponse;
+import com.collabsphere.repository.MessageRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Ring buffer of each team's newest messages, loaded on first read and kept
+ * current by sendMessage. A buffer always holds a contiguous tail of the
+ * team's history, so any read that starts inside it is answered without the
+ * database. Idle teams are evicted LRU once max-messages is exceeded.
+ *
+ * A buffer is registered before its load query runs and sends block on it
+ * until the load finishes, so a message is in the load, merged in afterwards,
+ * or both. The query must therefore not see an older snapshot than the call:
+ * callers in a transaction use READ_COMMITTED. Write-behind messages that are
+ * not inserted yet are merged in from the queue.
+ *
+ * Read methods return null when the buffer cannot answer the query completely.
+ * The cache is off with cluster.enabled, since other nodes' messages never
+ * reach this node's buffers.
+ */
+@Component
+public class RecentMessageCache {
+
+    @Autowired
+    private MessageRepository messageRepository;
+
+    @Autowired
+    private MessageWriteBehindQueue messageWriteBehindQueue;
+
+    @Value("${chat.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.cache.messages-per-team:200}")
+    private int messagesPerTeam;
+
+    @Value("${chat.cache.max-messages:100000}")
+    private int maxMessages;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final LinkedHashMap<Long, TeamBuffer> buffers = new LinkedHashMap<>(64, 0.75f, true);
+    private final AtomicInteger cachedMessages = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        enabled = enabled && !clusterEnabled;
+    }
+
+    /**
+     * Append a newly sent message once the surrounding transaction commits.
+     * Teams without a loaded buffer are skipped; their first read loads it.
+     */
+    public void add(Long teamId, ChatMessageResponse message) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> {
+            TeamBuffer buffer;
+            synchronized (buffers) {
+                buffer = buffers.get(teamId);
+            }
+            if (buffer != null) {
+                cachedMessages.addAndGet(buffer.insert(message));
+                enforceCap();
+            }
+        });
+    }
+
+    /**
+     * True when the team's buffer is already loaded, i.e. the team is known to exist.
+     */
+    public boolean isCached(Long teamId) {
+        synchronized (buffers) {
+            TeamBuffer buffer = buffers.get(teamId);
+            return buffer != null && buffer.loaded;
+        }
+    }
+
+    public void evictTeam(Long teamId) {
+        TeamBuffer buffer;
+        synchronized (buffers) {
+            buffer = buffers.remove(teamId);
+        }
+        if (buffer != null) {
+            cachedMessages.addAndGet(-buffer.detach());
+        }
+    }
+
+    /**
+     * @return the team's full history, when it fits in the buffer
+     */
+    public List<ChatMessageResponse> getAll(Long teamId) {
+        TeamBuffer buffer = acquire(teamId);
+        if (buffer == null) {
+            return null;
+        }
+        synchronized (buffer) {
+            return record(buffer.complete ? buffer.ascending(null, Integer.MAX_VALUE) : null);
+        }
+    }
+
+    public List<ChatMessageResponse> getSince(Long teamId, LocalDateTime since) {
+        TeamBuffer buffer = acquire(teamId);
+        if (buffer == null) {
+            return null;
+        }
+        synchronized (buffer) {
+            // Messages sharing the oldest timestamp may already have been dropped
+            if (!buffer.complete && (buffer.size == 0 || !since.isAfter(buffer.get(0).getTimestamp()))) {
+                return record(null);
+            }
+            List<ChatMessageResponse> result = new ArrayList<>();
+            for (int i = 0; i < buffer.size; i++) {
+                ChatMessageResponse message = buffer.get(i);
+                if (!message.getTimestamp().isBefore(since)) {
+                    result.add(message);
+                }
+            }
+            return record(result);
+        }
+    }
+
+    /**
+     * Up to {@code count} messages before the cursor (or the newest, when it
+     * is null), newest first like {@link MessageRepository#findPageBefore}.
+     */
+    public List<ChatMessageResponse> getBefore(Long teamId, LocalDateTime timestamp, Long id, int count) {
+        TeamBuffer buffer = acquire(teamId);
+        if (buffer == null) {
+            return null;
+        }
+        synchronized (buffer) {
+            List<ChatMessageResponse> result = new ArrayList<>(Math.min(count, buffer.size));
+            for (int i = buffer.size - 1; i >= 0 && result.size() < count; i--) {
+                ChatMessageResponse message = buffer.get(i);
+                if (timestamp == null || compare(message, timestamp, id) < 0) {
+                    result.add(message);
+                }
+            }
+            return record(result.size() == count || buffer.complete ? result : null);
+        }
+    }
+
+    /**
+     * Up to {@code count} messages after the cursor, oldest first like
+     * {@link MessageRepository#findPageAfter}.
+     */
+    public List<ChatMessageResponse> getAfter(Long teamId, LocalDateTime timestamp, Long id, int count) {
+        TeamBuffer buffer = acquire(teamId);
+        if (buffer == null) {
+            return null;
+        }
+        synchronized (buffer) {
+            if (!buffer.complete && (buffer.size == 0 || compare(buffer.get(0), timestamp, id) > 0)) {
+                return record(null);
+            }
+            return record(buffer.ascending(message -> compare(message, timestamp, id) > 0, count));
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (buffers) {
+            stats.put("teams", buffers.size());
+        }
+        stats.put("messages", cachedMessages.get());
+        stats.put("maxMessages", maxMessages);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("loads", loads.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    private TeamBuffer acquire(Long teamId) {
+        if (!enabled) {
+            return null;
+        }
+        TeamBuffer buffer;
+        synchronized (buffers) {
+            buffer = buffers.computeIfAbsent(teamId, id -> new TeamBuffer(messagesPerTeam));
+        }
+        synchronized (buffer) {
+            if (!buffer.loaded) {
+                // Read before the query: a message leaves the queue only after its row commits
+                List<ChatMessageResponse> unsaved = messageWriteBehindQueue.isEnabled()
+                    ? messageWriteBehindQueue.getUnsaved(teamId) : List.of();
+                // Newest messages come back newest first
+                List<ChatMessageResponse> latest =
+                    messageRepository.findLatestPage(teamId, PageRequest.of(0, messagesPerTeam));
+                // Set first: inserting past capacity clears it
+                buffer.complete = latest.size() < messagesPerTeam;
+                int added = 0;
+                for (int i = latest.size() - 1; i >= 0; i--) {
+                    added += buffer.insert(latest.get(i));
+                }
+                for (ChatMessageResponse message : unsaved) {
+                    added += buffer.insert(message);
+                }
+                buffer.loaded = true;
+                loads.increment();
+                cachedMessages.addAndGet(added);
+            }
+            // Evicted while loading: whatever it holds may already be out of date
+            if (buffer.detached) {
+                return null;
+            }
+        }
+        enforceCap();
+        return buffer;
+    }
+
+    private List<ChatMessageResponse> record(List<ChatMessageResponse> result) {
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+
+    private void enforceCap() {
+        if (cachedMessages.get() <= maxMessages) {
+            return;
+        }
+        List<TeamBuffer> victims = new ArrayList<>();
+        synchronized (buffers) {
+            int remaining = cachedMessages.get();
+            Iterator<TeamBuffer> iterator = buffers.values().iterator();
+            // Keep at least the most recently used team
+            while (remaining > maxMessages && buffers.size() > 1 && iterator.hasNext()) {
+                TeamBuffer victim = iterator.next();
+                iterator.remove();
+                victims.add(victim);
+                remaining -= victim.size;
+            }
+        }
+        for (TeamBuffer victim : victims) {
+            cachedMessages.addAndGet(-victim.detach());
+            evictions.increment();
+        }
+    }
+
+    private static int compare(ChatMessageResponse message, LocalDateTime timestamp, Long id) {
+        int result = message.getTimestamp().compareTo(timestamp);
+        return result != 0 ? result : message.getId().compareTo(id);
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * Fixed-size ring of messages ordered by (timestamp, id). Guarded by its own monitor.
+     */
+    private static class TeamBuffer {
+        private final ChatMessageResponse[] slots;
+        private int head;
+        private volatile int size;
+        // True while the buffer holds every message the team has
+        private boolean complete;
+        private volatile boolean loaded;
+        private boolean detached;
+
+        private TeamBuffer(int capacity) {
+            slots = new ChatMessageResponse[capacity];
+        }
+
+        private ChatMessageResponse get(int index) {
+            return slots[(head + index) % slots.length];
+        }
+
+        private void set(int index, ChatMessageResponse message) {
+            slots[(head + index) % slots.length] = message;
+        }
+
+        /**
+         * Insert in (timestamp, id) order, dropping the oldest entry when full.
+         *
+         * @return the change in the number of buffered messages
+         */
+        private synchronized int insert(ChatMessageResponse message) {
+            if (detached) {
+                return 0;
+            }
+            // Commits can land slightly out of order; walk back from the newest entry
+            int position = size;
+            while (position > 0) {
+                int order = compare(get(position - 1), message.getTimestamp(), message.getId());
+                if (order == 0) {
+                    return 0;
+                }
+                if (order < 0) {
+                    break;
+                }
+                position--;
+            }
+
+            int added = 1;
+            if (size == slots.length) {
+                // Full: an entry older than everything kept cannot be placed at all
+                complete = false;
+                if (position == 0) {
+                    return 0;
+                }
+                slots[head] = null;
+                head = (head + 1) % slots.length;
+                size--;
+                position--;
+                added = 0;
+            }
+            for (int i = size; i > position; i--) {
+                set(i, get(i - 1));
+            }
+            set(position, message);
+            size++;
+            return added;
+        }
+
+        private List<ChatMessageResponse> ascending(Predicate<ChatMessageResponse> filter, int count) {
+            List<ChatMessageResponse> result = new ArrayList<>(Math.min(count, size));
+            for (int i = 0; i < size && result.size() < count; i++) {
+                ChatMessageResponse message = get(i);
+                if (filter == null || filter.test(message)) {
+                    result.add(message);
+                }
+            }
+            return result;
+        }
+
+        private synchronized int detach() {
+            detached = true;
+            return size;
+        }
+    }
+}
@@ -33,6 +33,9 @@ public class SubmissionService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
     public Submission createSubmission(CreateSubmissionRequest request, User user) {
         // Find milestone
         Milestone milestone = milestoneRepository.findById(request.getMilestoneId())
@@ -43,7 +46,7 @@ public class SubmissionService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -103,9 +106,8 @@ public class SubmissionService {
         // Check permissions
         if (user.getRole() == UserRole.STUDENT) {
             // Students can only see submissions from their own teams
-            List<Team> userTeams = teamRepository.findByMemberId(user.getId());
             return submissionRepository.findByMilestoneId(milestoneId).stream()
-                .filter(submission -> userTeams.contains(submission.getTeam()))
+                .filter(submission -> teamMembershipIndex.isMember(user.getId(), submission.getTeam().getId()))
                 .toList();
         } else {
             // Lecturers and admins can see all submissions
@@ -118,7 +120,7 @@ public class SubmissionService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user has permission to view team submissions
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not authorized to view this team's submissions");
         }
@@ -131,7 +133,7 @@ public class SubmissionService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check permissions
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not authorized to view this submission");
         }
@@ -157,14 +159,4 @@ public class SubmissionService {
                 .toList();
         }
     }
-
-    private boolean isTeamMemberOrHasPermission(User user, Team team) {
-        // Admins and lecturers have access to all teams
-        if (user.getRole() == UserRole.ADMIN || user.getRole() == UserRole.LECTURER) {
-            return true;
-        }
-        
-        // Check if user is a member of the team
-        return team.getMembers().contains(user);
-    }
 }
\ No newline at end of file
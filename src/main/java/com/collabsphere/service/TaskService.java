@@ -8,7 +8,6 @@ import com.collabsphere.entity.Task;
 import com.collabsphere.entity.Team;
 import com.collabsphere.entity.User;
 import com.collabsphere.entity.enums.TaskStatus;
-import com.collabsphere.entity.enums.UserRole;
 import com.collabsphere.repository.TaskRepository;
 import com.collabsphere.repository.TeamRepository;
 import com.collabsphere.repository.UserRepository;
@@ -32,6 +31,9 @@ public class TaskService {
     @Autowired
     private TeamRepository teamRepository;
 
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -41,7 +43,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team or has permission
-        if (!isTeamMemberOrHasPermission(creator, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(creator, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -53,7 +55,7 @@ public class TaskService {
                 .orElseThrow(() -> new RuntimeException("Assignee not found"));
             
             // Check if assignee is a team member
-            if (!team.getMembers().contains(assignee)) {
+            if (!teamMembershipIndex.isMember(assignee.getId(), team.getId())) {
                 throw new RuntimeException("Assignee must be a member of the team");
             }
         }
@@ -80,7 +82,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, task.getTeam())) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, task.getTeam().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -94,7 +96,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, task.getTeam())) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, task.getTeam().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -104,7 +106,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Assignee not found"));
 
         // Check if assignee is a team member
-        if (!task.getTeam().getMembers().contains(assignee)) {
+        if (!teamMembershipIndex.isMember(assignee.getId(), task.getTeam().getId())) {
             throw new RuntimeException("Assignee must be a member of the team");
         }
 
@@ -117,7 +119,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team or has permission
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -130,7 +132,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -152,7 +154,7 @@ public class TaskService {
         if (taskOpt.isPresent()) {
             Task task = taskOpt.get();
             // Check if user is a member of the team
-            if (!isTeamMemberOrHasPermission(user, task.getTeam())) {
+            if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, task.getTeam().getId())) {
                 throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                     "You are not a member of this team");
             }
@@ -166,7 +168,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -179,7 +181,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, task.getTeam())) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, task.getTeam().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -195,7 +197,7 @@ public class TaskService {
             User assignee = userRepository.findById(request.getAssigneeId())
                 .orElseThrow(() -> new RuntimeException("Assignee not found"));
             
-            if (!task.getTeam().getMembers().contains(assignee)) {
+            if (!teamMembershipIndex.isMember(assignee.getId(), task.getTeam().getId())) {
                 throw new RuntimeException("Assignee must be a member of the team");
             }
             task.setAssignee(assignee);
@@ -209,7 +211,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Task not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, task.getTeam())) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, task.getTeam().getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -222,7 +224,7 @@ public class TaskService {
             .orElseThrow(() -> new RuntimeException("Team not found"));
 
         // Check if user is a member of the team
-        if (!isTeamMemberOrHasPermission(user, team)) {
+        if (!teamMembershipIndex.isTeamMemberOrHasPermission(user, team.getId())) {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN, 
                 "You are not a member of this team");
         }
@@ -233,17 +235,4 @@ public class TaskService {
 
         return new KanbanBoardResponse(todoTasks, doingTasks, doneTasks, teamId, team.getName());
     }
-
-    /**
-     * Check if user is a team member or has permission (LECTURER/ADMIN)
-     */
-    private boolean isTeamMemberOrHasPermission(User user, Team team) {
-        // Admins and lecturers have access to all teams
-        if (user.getRole() == UserRole.ADMIN || user.getRole() == UserRole.LECTURER) {
-            return true;
-        }
-        
-        // Check if user is a member of the team
-        return team.getMembers().contains(user);
-    }
 }
\ No newline at end of file
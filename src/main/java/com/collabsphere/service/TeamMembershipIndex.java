@@ -0,0 +1,212 @@
+package com.collabsphere.service;
+
+import com.collabsphere.entity.User;
+import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.repository.TeamRepository;
+import com.collabsphere.security.UserPrincipal;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory userId -> teamIds index used for every team authorization check,
+ * so services never initialize the lazy team_members collection.
+ * Team ids are kept per user as sorted primitive arrays, replaced on write.
+ *
+ * With cluster.enabled other nodes change memberships too: a miss is checked
+ * against the database, and every membership-refresh-ms the index is compared
+ * with the stored memberships, so a removal on another node is applied here,
+ * listeners included, within that interval.
+ */
+@Component
+public class TeamMembershipIndex {
+
+    private static final long[] NO_TEAMS = new long[0];
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    private final Map<Long, long[]> teamsByUser = new ConcurrentHashMap<>();
+
+    // Called with (userId, teamId) once a removal is committed
+    private final List<BiConsumer<Long, Long>> removalListeners = new CopyOnWriteArrayList<>();
+
+    @PostConstruct
+    public void warmUp() {
+        Map<Long, long[]> loaded = loadMemberships();
+        teamsByUser.clear();
+        teamsByUser.putAll(loaded);
+    }
+
+    /**
+     * Apply membership changes made by other nodes. Each difference is checked
+     * again on its own, so a change committed here during the scan is not undone.
+     */
+    @Scheduled(fixedDelayString = "${cluster.membership-refresh-ms:5000}",
+        initialDelayString = "${cluster.membership-refresh-ms:5000}")
+    public void refresh() {
+        if (!clusterEnabled) {
+            return;
+        }
+        Map<Long, long[]> stored = loadMemberships();
+        Set<Long> userIds = new HashSet<>(stored.keySet());
+        userIds.addAll(teamsByUser.keySet());
+        for (Long userId : userIds) {
+            long[] local = teamsByUser.getOrDefault(userId, NO_TEAMS);
+            long[] remote = stored.getOrDefault(userId, NO_TEAMS);
+            if (Arrays.equals(local, remote)) {
+                continue;
+            }
+            for (long teamId : local) {
+                if (Arrays.binarySearch(remote, teamId) < 0 && !teamRepository.existsMembership(teamId, userId)) {
+                    unindex(teamId, userId);
+                }
+            }
+            for (long teamId : remote) {
+                if (Arrays.binarySearch(local, teamId) < 0 && teamRepository.existsMembership(teamId, userId)) {
+                    index(teamId, userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if user is a team member or has permission (LECTURER/ADMIN)
+     */
+    public boolean isTeamMemberOrHasPermission(User user, Long teamId) {
+        // Admins and lecturers have access to all teams
+        if (user.getRole() == UserRole.ADMIN || user.getRole() == UserRole.LECTURER) {
+            return true;
+        }
+
+        return isMember(user.getId(), teamId);
+    }
+
+    public boolean isTeamMemberOrHasPermission(UserPrincipal principal, Long teamId) {
+        if (principal.getRole() == UserRole.ADMIN || principal.getRole() == UserRole.LECTURER) {
+            return true;
+        }
+
+        return isMember(principal.getId(), teamId);
+    }
+
+    public boolean isMember(Long userId, Long teamId) {
+        long[] teamIds = teamsByUser.get(userId);
+        if (teamIds != null && Arrays.binarySearch(teamIds, teamId) >= 0) {
+            return true;
+        }
+        // Possibly added on another node since the last refresh
+        if (clusterEnabled && teamRepository.existsMembership(teamId, userId)) {
+            index(teamId, userId);
+            return true;
+        }
+        return false;
+    }
+
+    public long[] getTeamIds(Long userId) {
+        return teamsByUser.getOrDefault(userId, NO_TEAMS).clone();
+    }
+
+    public void addMember(Long teamId, Long userId) {
+        afterCommit(() -> index(teamId, userId));
+    }
+
+    public void removeMember(Long teamId, Long userId) {
+        afterCommit(() -> unindex(teamId, userId));
+    }
+
+    public void removeTeam(Long teamId, Collection<Long> memberIds) {
+        List<Long> userIds = List.copyOf(memberIds);
+        afterCommit(() -> userIds.forEach(userId -> unindex(teamId, userId)));
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    public void addRemovalListener(BiConsumer<Long, Long> listener) {
+        removalListeners.add(listener);
+    }
+
+    public int size() {
+        return teamsByUser.size();
+    }
+
+    // Only publish membership changes once the surrounding transaction has committed
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private Map<Long, long[]> loadMemberships() {
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Object[] row : teamRepository.findAllMemberships()) {
+            Long userId = (Long) row[0];
+            long teamId = (Long) row[1];
+            loaded.put(userId, insert(loaded.getOrDefault(userId, NO_TEAMS), teamId));
+        }
+        return loaded;
+    }
+
+    private void index(Long teamId, Long userId) {
+        teamsByUser.compute(userId, (id, teamIds) -> insert(teamIds == null ? NO_TEAMS : teamIds, teamId));
+    }
+
+    private void unindex(Long teamId, Long userId) {
+        teamsByUser.computeIfPresent(userId, (id, teamIds) -> {
+            long[] remaining = remove(teamIds, teamId);
+            return remaining.length == 0 ? null : remaining;
+        });
+        removalListeners.forEach(listener -> listener.accept(userId, teamId));
+    }
+
+    private static long[] insert(long[] teamIds, long teamId) {
+        int index = Arrays.binarySearch(teamIds, teamId);
+        if (index >= 0) {
+            return teamIds;
+        }
+        int insertAt = -index - 1;
+        long[] result = new long[teamIds.length + 1];
+        System.arraycopy(teamIds, 0, result, 0, insertAt);
+        result[insertAt] = teamId;
+        System.arraycopy(teamIds, insertAt, result, insertAt + 1, teamIds.length - insertAt);
+        return result;
+    }
+
+    private static long[] remove(long[] teamIds, long teamId) {
+        int index = Arrays.binarySearch(teamIds, teamId);
+        if (index < 0) {
+            return teamIds;
+        }
+        long[] result = new long[teamIds.length - 1];
+        System.arraycopy(teamIds, 0, result, 0, index);
+        System.arraycopy(teamIds, index + 1, result, index, teamIds.length - index - 1);
+        return result;
+    }
+}
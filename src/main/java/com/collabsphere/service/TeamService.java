@@ -23,6 +23,24 @@ public class TeamService {
     @Autowired
     private ProjectRepository projectRepository;
 
+    @Autowired
+    private TeamMembershipIndex teamMembershipIndex;
+
+    @Autowired
+    private RecentMessageCache recentMessageCache;
+
+    @Autowired
+    private ChatSearchIndex chatSearchIndex;
+
+    @Autowired
+    private ReadCursorService readCursorService;
+
+    @Autowired
+    private MessageArchiveService messageArchiveService;
+
+    @Autowired
+    private WhiteboardService whiteboardService;
+
     public List<Team> autoGenerateTeams(AutoGenerateTeamsRequest request, User user) {
         // Validate user role
         if (user.getRole() != UserRole.LECTURER && user.getRole() != UserRole.ADMIN) {
@@ -80,6 +98,7 @@ public class TeamService {
             for (User student : teamMembers) {
                 team.getMembers().add(student);
                 student.getTeams().add(team);
+                teamMembershipIndex.addMember(team.getId(), student.getId());
             }
             
             // Save team with members
@@ -102,6 +121,7 @@ public class TeamService {
                 targetTeam.getMembers().add(student);
                 student.getTeams().add(targetTeam);
                 teamRepository.save(targetTeam);
+                teamMembershipIndex.addMember(targetTeam.getId(), student.getId());
             }
         }
 
@@ -131,14 +151,16 @@ public class TeamService {
             .findFirst()
             .orElseThrow(() -> new RuntimeException("User not found in this classroom"));
 
-        if (team.getMembers().contains(user)) {
+        if (teamMembershipIndex.isMember(userId, teamId)) {
             throw new RuntimeException("User is already a member of this team");
         }
 
         team.getMembers().add(user);
         user.getTeams().add(team);
 
-        return teamRepository.save(team);
+        Team savedTeam = teamRepository.save(team);
+        teamMembershipIndex.addMember(teamId, userId);
+        return savedTeam;
     }
 
     public Team removeMemberFromTeam(Long teamId, Long userId) {
@@ -153,17 +175,27 @@ public class TeamService {
         team.getMembers().remove(user);
         user.getTeams().remove(team);
 
-        return teamRepository.save(team);
+        Team savedTeam = teamRepository.save(team);
+        teamMembershipIndex.removeMember(teamId, userId);
+        return savedTeam;
     }
 
     public void deleteTeamsByProject(Long projectId) {
         List<Team> teams = teamRepository.findByProjectId(projectId);
         for (Team team : teams) {
             // Remove team from all members
+            List<Long> memberIds = new ArrayList<>();
             for (User member : team.getMembers()) {
                 member.getTeams().remove(team);
+                memberIds.add(member.getId());
             }
             team.getMembers().clear();
+            teamMembershipIndex.removeTeam(team.getId(), memberIds);
+            recentMessageCache.evictTeam(team.getId());
+            chatSearchIndex.evictTeam(team.getId());
+            readCursorService.removeTeam(team.getId());
+            messageArchiveService.removeTeam(team.getId());
+            whiteboardService.removeTeam(team.getId());
         }
         teamRepository.deleteAll(teams);
     }
@@ -0,0 +1,369 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Binary whiteboard payload, sent and received as application/octet-stream
+ * (SockJS frames are text, so binary clients use the raw /ws/websocket URL).
+ * A frame is a version byte, a varint run count and the runs. A run holds
+ * consecutive events of one user sharing type, colour and line width whose
+ * segments join end to start, so a stroke costs 8 bytes per point:
+ *
+ * <pre>
+ *   type       byte; bit 7 set when the first point is a dot rather than a segment start
+ *   name       string, only for OTHER types such as cursors
+ *   colour     palette index, or NO_COLOR, RGB + 3 bytes, NAMED + string
+ *   lineWidth  varint, plus one (0 = none)
+ *   userId     string
+ *   seq        varint, plus one (0 = none); seq of the first event, the rest count up
+ *   timestamp  varint (0 = none), that of the first event
+ *   points     varint count, float32 x and y of the first point, float32 deltas of the rest
+ * </pre>
+ *
+ * Strings are a varint length plus one (0 = null) and UTF-8 bytes. A run
+ * without points is one event without coordinates, such as a clear.
+ */
+public final class WhiteboardBinaryCodec {
+
+    public static final MimeType CONTENT_TYPE = MimeTypeUtils.APPLICATION_OCTET_STREAM;
+
+    private static final int VERSION = 1;
+
+    private static final int DRAW = 0;
+    private static final int ERASE = 1;
+    private static final int CLEAR = 2;
+    private static final int OTHER = 3;
+    private static final int DOT = 0x80;
+
+    private static final int NAMED = 0xFD;
+    private static final int RGB = 0xFE;
+    private static final int NO_COLOR = 0xFF;
+
+    private static final String[] PALETTE = {
+        "#000000", "#ffffff", "#ff0000", "#00ff00", "#0000ff", "#ffff00", "#ff00ff", "#00ffff",
+        "#808080", "#c0c0c0", "#800000", "#008000", "#000080", "#ffa500", "#800080", "#a52a2a"
+    };
+
+    private WhiteboardBinaryCodec() {}
+
+    public static boolean isBinary(MimeType contentType) {
+        return contentType != null && CONTENT_TYPE.isCompatibleWith(contentType);
+    }
+
+    public static byte[] encode(List<WhiteboardDrawEvent> events) {
+        List<Run> runs = new ArrayList<>();
+        Run run = null;
+        for (WhiteboardDrawEvent event : events) {
+            if (run == null || !run.extend(event)) {
+                run = new Run(event);
+                runs.add(run);
+            }
+        }
+
+        Output out = new Output(16 + events.size() * 8);
+        out.writeByte(VERSION);
+        out.writeVarint(runs.size());
+        for (Run r : runs) {
+            r.write(out);
+        }
+        return out.toByteArray();
+    }
+
+    public static List<WhiteboardDrawEvent> decode(byte[] frame) {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(frame);
+            if ((in.get() & 0xFF) != VERSION) {
+                throw new IllegalArgumentException("Unsupported whiteboard frame version");
+            }
+            // A run takes at least 7 bytes
+            int runCount = readCount(in, 7);
+            List<WhiteboardDrawEvent> events = new ArrayList<>();
+            for (int i = 0; i < runCount; i++) {
+                readRun(in, events);
+            }
+            return events;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated whiteboard frame");
+        }
+    }
+
+    private static void readRun(ByteBuffer in, List<WhiteboardDrawEvent> events) {
+        int typeByte = in.get() & 0xFF;
+        boolean dot = (typeByte & DOT) != 0;
+        String type = switch (typeByte & ~DOT) {
+            case DRAW -> "draw";
+            case ERASE -> "erase";
+            case CLEAR -> "clear";
+            case OTHER -> readString(in);
+            default -> throw new IllegalArgumentException("Unknown whiteboard operation type");
+        };
+        String color = readColor(in);
+        long lineWidth = readVarint(in);
+        String userId = readString(in);
+        long seq = readVarint(in);
+        long timestamp = readVarint(in);
+        int points = readCount(in, 8);
+
+        if (points == 0) {
+            events.add(event(type, color, lineWidth, userId, seq, timestamp));
+            return;
+        }
+        float x = in.getFloat();
+        float y = in.getFloat();
+        int emitted = 0;
+        if (dot) {
+            WhiteboardDrawEvent event = event(type, color, lineWidth, userId, seq, timestamp);
+            event.setX((double) x);
+            event.setY((double) y);
+            events.add(event);
+            emitted++;
+        }
+        for (int i = 1; i < points; i++) {
+            WhiteboardDrawEvent event = event(type, color, lineWidth, userId, seq == 0 ? 0 : seq + emitted, timestamp);
+            event.setPrevX((double) x);
+            event.setPrevY((double) y);
+            x += in.getFloat();
+            y += in.getFloat();
+            event.setX((double) x);
+            event.setY((double) y);
+            events.add(event);
+            emitted++;
+        }
+    }
+
+    private static WhiteboardDrawEvent event(String type, String color, long lineWidth, String userId,
+                                             long seq, long timestamp) {
+        WhiteboardDrawEvent event = new WhiteboardDrawEvent();
+        event.setType(type);
+        event.setColor(color);
+        event.setLineWidth(lineWidth == 0 ? null : (int) (lineWidth - 1));
+        event.setUserId(userId);
+        event.setSeq(seq == 0 ? null : seq - 1);
+        event.setTimestamp(timestamp == 0 ? null : timestamp);
+        return event;
+    }
+
+    private static String readColor(ByteBuffer in) {
+        int code = in.get() & 0xFF;
+        if (code < PALETTE.length) {
+            return PALETTE[code];
+        }
+        return switch (code) {
+            case NO_COLOR -> null;
+            case RGB -> String.format("#%02x%02x%02x", in.get() & 0xFF, in.get() & 0xFF, in.get() & 0xFF);
+            case NAMED -> readString(in);
+            default -> throw new IllegalArgumentException("Unknown whiteboard colour");
+        };
+    }
+
+    private static String readString(ByteBuffer in) {
+        long length = readVarint(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw new IllegalArgumentException("Malformed whiteboard frame");
+        }
+        byte[] bytes = new byte[(int) length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // A count bounded by what the rest of the frame can hold
+    private static int readCount(ByteBuffer in, int minBytesPerItem) {
+        long count = readVarint(in);
+        if (count > in.remaining() / minBytesPerItem) {
+            throw new IllegalArgumentException("Malformed whiteboard frame");
+        }
+        return (int) count;
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed whiteboard frame");
+    }
+
+    /**
+     * Events being merged into one run. Points are kept as the decoder will
+     * rebuild them, so deltas never drift.
+     */
+    private static class Run {
+        private final WhiteboardDrawEvent first;
+        private final boolean dot;
+        private float[] points = new float[8];
+        private int pointCount;
+        private int eventCount = 1;
+        private float lastX;
+        private float lastY;
+
+        private Run(WhiteboardDrawEvent first) {
+            this.first = first;
+            boolean hasPoint = first.getX() != null && first.getY() != null;
+            boolean hasPrev = hasPoint && first.getPrevX() != null && first.getPrevY() != null;
+            this.dot = hasPoint && !hasPrev;
+            if (hasPrev) {
+                addPoint(first.getPrevX(), first.getPrevY());
+            }
+            if (hasPoint) {
+                addPoint(first.getX(), first.getY());
+            }
+        }
+
+        private boolean extend(WhiteboardDrawEvent event) {
+            if (pointCount == 0 || event.getX() == null || event.getY() == null
+                || event.getPrevX() == null || event.getPrevY() == null
+                || event.getPrevX().floatValue() != lastX || event.getPrevY().floatValue() != lastY
+                || !sameAttributes(event)) {
+                return false;
+            }
+            addPoint(event.getX(), event.getY());
+            eventCount++;
+            return true;
+        }
+
+        private boolean sameAttributes(WhiteboardDrawEvent event) {
+            Long expectedSeq = first.getSeq() == null ? null : first.getSeq() + eventCount;
+            return Objects.equals(first.getType(), event.getType())
+                && Objects.equals(first.getColor(), event.getColor())
+                && Objects.equals(first.getLineWidth(), event.getLineWidth())
+                && Objects.equals(first.getUserId(), event.getUserId())
+                && Objects.equals(expectedSeq, event.getSeq());
+        }
+
+        private void addPoint(double x, double y) {
+            if (pointCount * 2 == points.length) {
+                points = Arrays.copyOf(points, points.length * 2);
+            }
+            float dx = pointCount == 0 ? (float) x : (float) (x - lastX);
+            float dy = pointCount == 0 ? (float) y : (float) (y - lastY);
+            points[pointCount * 2] = dx;
+            points[pointCount * 2 + 1] = dy;
+            lastX = pointCount == 0 ? dx : lastX + dx;
+            lastY = pointCount == 0 ? dy : lastY + dy;
+            pointCount++;
+        }
+
+        private void write(Output out) {
+            String type = first.getType();
+            int code = "draw".equals(type) ? DRAW : "erase".equals(type) ? ERASE : "clear".equals(type) ? CLEAR : OTHER;
+            out.writeByte(dot ? code | DOT : code);
+            if (code == OTHER) {
+                out.writeString(type);
+            }
+            writeColor(out, first.getColor());
+            out.writeVarint(first.getLineWidth() == null ? 0 : first.getLineWidth() + 1L);
+            out.writeString(first.getUserId());
+            out.writeVarint(first.getSeq() == null ? 0 : first.getSeq() + 1);
+            out.writeVarint(first.getTimestamp() == null ? 0 : first.getTimestamp());
+            out.writeVarint(pointCount);
+            for (int i = 0; i < pointCount * 2; i++) {
+                out.writeFloat(points[i]);
+            }
+        }
+
+        private static void writeColor(Output out, String color) {
+            if (color == null) {
+                out.writeByte(NO_COLOR);
+                return;
+            }
+            String normalized = color.toLowerCase(Locale.ROOT);
+            for (int i = 0; i < PALETTE.length; i++) {
+                if (PALETTE[i].equals(normalized)) {
+                    out.writeByte(i);
+                    return;
+                }
+            }
+            if (normalized.length() == 7 && normalized.charAt(0) == '#' && isHex(normalized.substring(1))) {
+                int rgb = Integer.parseInt(normalized.substring(1), 16);
+                out.writeByte(RGB);
+                out.writeByte(rgb >> 16);
+                out.writeByte(rgb >> 8);
+                out.writeByte(rgb);
+                return;
+            }
+            out.writeByte(NAMED);
+            out.writeString(color);
+        }
+
+        private static boolean isHex(String digits) {
+            for (int i = 0; i < digits.length(); i++) {
+                if (Character.digit(digits.charAt(i), 16) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Output {
+        private byte[] bytes;
+        private int size;
+
+        private Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+            }
+        }
+
+        private void writeByte(int b) {
+            ensure(1);
+            bytes[size++] = (byte) b;
+        }
+
+        private void writeVarint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        private void writeFloat(float value) {
+            ensure(4);
+            int bits = Float.floatToRawIntBits(value);
+            bytes[size++] = (byte) (bits >> 24);
+            bytes[size++] = (byte) (bits >> 16);
+            bytes[size++] = (byte) (bits >> 8);
+            bytes[size++] = (byte) bits;
+        }
+
+        private void writeString(String value) {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+}
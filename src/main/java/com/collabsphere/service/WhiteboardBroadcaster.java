@@ -0,0 +1,156 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardBatch;
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs, applies to the live board and publishes incoming whiteboard events. With coalescing on, events
+ * are buffered per team and every tick-ms each team with new events gets one
+ * {@link WhiteboardBatch} on /topic/whiteboard/{teamId} and one binary frame
+ * on /topic/whiteboard/{teamId}/binary, rather than a frame per pointer move.
+ * Events keep their arrival order; a user's cursor event replaces their
+ * earlier one still waiting in the same tick.
+ *
+ * With coalescing off, each event is sent on its own as JSON and each
+ * inbound frame as one binary frame.
+ */
+@Component
+public class WhiteboardBroadcaster {
+
+    private static final String CURSOR = "cursor";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private LiveWhiteboardCache liveWhiteboardCache;
+
+    @Value("${whiteboard.broadcast.coalesce:true}")
+    private boolean coalesce;
+
+    private final Map<Long, TeamBuffer> buffers = new ConcurrentHashMap<>();
+    private final Set<Long> pendingTeams = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder framesIn = new LongAdder();
+    private final LongAdder eventsIn = new LongAdder();
+    private final LongAdder supersededCursors = new LongAdder();
+    private final LongAdder framesOut = new LongAdder();
+    private final LongAdder binaryFramesOut = new LongAdder();
+    private final LongAdder eventsOut = new LongAdder();
+
+    /**
+     * Log and queue the events of one inbound frame from {@code senderId}.
+     */
+    public void submit(Long teamId, Long senderId, List<WhiteboardDrawEvent> events) {
+        framesIn.increment();
+        eventsIn.add(events.size());
+        if (!coalesce) {
+            for (WhiteboardDrawEvent event : events) {
+                if (WhiteboardOpLog.isLogged(event)) {
+                    liveWhiteboardCache.record(teamId, event);
+                }
+                messagingTemplate.convertAndSend("/topic/whiteboard/" + teamId, event);
+                framesOut.increment();
+            }
+            sendBinary(teamId, events);
+            eventsOut.add(events.size());
+            return;
+        }
+
+        TeamBuffer buffer = buffers.computeIfAbsent(teamId, id -> new TeamBuffer());
+        // Logged under the buffer's monitor, so batches are in seq order
+        synchronized (buffer) {
+            for (WhiteboardDrawEvent event : events) {
+                if (WhiteboardOpLog.isLogged(event)) {
+                    liveWhiteboardCache.record(teamId, event);
+                } else if (CURSOR.equals(event.getType()) && senderId != null) {
+                    Integer previous = buffer.cursorIndexes.put(senderId, buffer.events.size());
+                    if (previous != null) {
+                        buffer.events.set(previous, null);
+                        supersededCursors.increment();
+                    }
+                }
+                buffer.events.add(event);
+            }
+        }
+        pendingTeams.add(teamId);
+    }
+
+    @Scheduled(fixedRateString = "${whiteboard.broadcast.tick-ms:25}")
+    public void flush() {
+        for (Iterator<Long> iterator = pendingTeams.iterator(); iterator.hasNext(); ) {
+            Long teamId = iterator.next();
+            // Removed before draining, so events queued meanwhile mark the team again
+            iterator.remove();
+            TeamBuffer buffer = buffers.get(teamId);
+            List<WhiteboardDrawEvent> events;
+            synchronized (buffer) {
+                events = buffer.drain();
+            }
+            if (events.isEmpty()) {
+                continue;
+            }
+            messagingTemplate.convertAndSend("/topic/whiteboard/" + teamId, new WhiteboardBatch(teamId, events));
+            framesOut.increment();
+            sendBinary(teamId, events);
+            eventsOut.add(events.size());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("coalesce", coalesce);
+        stats.put("framesIn", framesIn.sum());
+        stats.put("eventsIn", eventsIn.sum());
+        stats.put("supersededCursors", supersededCursors.sum());
+        stats.put("framesOut", framesOut.sum());
+        stats.put("binaryFramesOut", binaryFramesOut.sum());
+        stats.put("eventsOut", eventsOut.sum());
+        return stats;
+    }
+
+    private void sendBinary(Long teamId, List<WhiteboardDrawEvent> events) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create();
+        headers.setContentType(WhiteboardBinaryCodec.CONTENT_TYPE);
+        headers.setLeaveMutable(true);
+        messagingTemplate.convertAndSend("/topic/whiteboard/" + teamId + "/binary",
+            WhiteboardBinaryCodec.encode(events), headers.getMessageHeaders());
+        binaryFramesOut.increment();
+    }
+
+    /**
+     * Events of one team waiting for the next tick. Superseded cursor events
+     * are left as null slots. Guarded by its own monitor.
+     */
+    private static class TeamBuffer {
+        private List<WhiteboardDrawEvent> events = new ArrayList<>();
+        private final Map<Long, Integer> cursorIndexes = new HashMap<>();
+
+        private List<WhiteboardDrawEvent> drain() {
+            List<WhiteboardDrawEvent> drained = new ArrayList<>(events.size());
+            for (WhiteboardDrawEvent event : events) {
+                if (event != null) {
+                    drained.add(event);
+                }
+            }
+            events = new ArrayList<>();
+            cursorIndexes.clear();
+            return drained;
+        }
+    }
+}
@@ -0,0 +1,477 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.dto.WhiteboardState;
+import com.collabsphere.entity.Team;
+import com.collabsphere.entity.WhiteboardData;
+import com.collabsphere.repository.TeamRepository;
+import com.collabsphere.repository.WhiteboardDataRepository;
+import com.collabsphere.repository.WhiteboardOpRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Append-only log of whiteboard operations. Draw, erase and clear events get
+ * a per-team seq from an in-memory counter (single writer node) and are
+ * inserted into whiteboard_ops in JDBC batches every flush-interval-ms; a
+ * crash loses at most that window of strokes.
+ *
+ * Every compaction-interval-ms, teams with at least compaction-min-ops logged
+ * operations have them folded into their WhiteboardData snapshot and deleted,
+ * so loading a board reads one snapshot row plus a short tail. Boards held by
+ * {@link LiveWhiteboardCache} are skipped; its checkpoints do the same.
+ *
+ * With cluster.enabled nothing is held in memory: each operation is inserted
+ * right away, numbered from the stored head under a lock on the team row, so
+ * every node sees one sequence per team.
+ */
+@Component
+public class WhiteboardOpLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(WhiteboardOpLog.class);
+
+    private static final Set<String> LOGGED_TYPES = Set.of("draw", "erase", "clear");
+
+    private static final String INSERT_SQL =
+        "INSERT INTO whiteboard_ops (team_id, seq, type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private static final TypeReference<List<WhiteboardDrawEvent>> OPS_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private WhiteboardOpRepository whiteboardOpRepository;
+
+    @Autowired
+    private WhiteboardDataRepository whiteboardDataRepository;
+
+    @Autowired
+    private TeamRepository teamRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Lazy
+    private LiveWhiteboardCache liveWhiteboardCache;
+
+    @Value("${whiteboard.oplog.compaction-min-ops:500}")
+    private long compactionMinOps;
+
+    @Value("${cluster.enabled:false}")
+    private boolean clusterEnabled;
+
+    // Payloads and snapshots leave out null fields
+    private ObjectMapper opMapper;
+
+    // Shared appends read the stored head after taking the team lock
+    private TransactionTemplate readCommitted;
+
+    private final Map<Long, TeamLog> logs = new ConcurrentHashMap<>();
+
+    private final LongAdder appendedOps = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder flushedOps = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder compactions = new LongAdder();
+    private final LongAdder compactedOps = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        opMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        readCommitted = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readCommitted.setIsolationLevel(TransactionDefinition.ISOLATION_READ_COMMITTED);
+    }
+
+    /**
+     * Whether an event changes the board and belongs in the log.
+     */
+    public static boolean isLogged(WhiteboardDrawEvent event) {
+        return event.getType() != null && LOGGED_TYPES.contains(event.getType());
+    }
+
+    /**
+     * Number the operation, setting its seq, and queue it for the next batch insert.
+     */
+    public long append(Long teamId, WhiteboardDrawEvent event) {
+        event.setSeq(null);
+        String payload = write(event);
+        if (clusterEnabled) {
+            long seq = readCommitted.execute(status -> {
+                long next = lockedHead(teamId) + 1;
+                jdbcTemplate.update(INSERT_SQL, teamId, next, event.getType(), payload,
+                    Timestamp.valueOf(LocalDateTime.now()));
+                return next;
+            });
+            event.setSeq(seq);
+            appendedOps.increment();
+            return seq;
+        }
+        TeamLog log = log(teamId);
+        long seq;
+        // Queued under the team's monitor, so each team's queue is in seq order
+        synchronized (log) {
+            seq = ++log.head;
+            log.pending.add(new PendingOp(seq, event.getType(), payload, Timestamp.valueOf(LocalDateTime.now())));
+        }
+        event.setSeq(seq);
+        appendedOps.increment();
+        return seq;
+    }
+
+    /**
+     * The highest seq handed out for a team.
+     */
+    public long head(Long teamId) {
+        if (clusterEnabled) {
+            return storedHead(teamId);
+        }
+        TeamLog log = log(teamId);
+        synchronized (log) {
+            return log.head;
+        }
+    }
+
+    public boolean isShared() {
+        return clusterEnabled;
+    }
+
+    /**
+     * Take the next seq without logging an operation, for a change written
+     * straight to the snapshot. With cluster.enabled the caller's transaction
+     * must be read committed and store the seq before it commits.
+     */
+    public long reserve(Long teamId) {
+        if (clusterEnabled) {
+            return lockedHead(teamId) + 1;
+        }
+        TeamLog log = log(teamId);
+        synchronized (log) {
+            return ++log.head;
+        }
+    }
+
+    /**
+     * Read a board: its snapshot (or an empty board) with every logged operation
+     * after it folded in. Runs a transaction of its own, so the caller must not
+     * be in one: queued operations are copied before that transaction's first
+     * statement, and any flushed after the copy are then in its snapshot.
+     */
+    public LoadedBoard load(Long teamId) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A whiteboard must be loaded outside a transaction");
+        }
+        TreeMap<Long, String> pending = pending(teamId);
+        // One transaction, so the snapshot and the tail after it agree
+        return transactionTemplate.execute(status -> {
+            WhiteboardData data = whiteboardDataRepository.findByTeamId(teamId).orElse(null);
+            long lastOpSeq = data != null && data.getLastOpSeq() != null ? data.getLastOpSeq() : 0;
+            Board board = data != null ? new Board(data.getDataJson(), readOps(data.getOpsJson())) : new Board("{}", List.of());
+            long seq = lastOpSeq;
+            for (WhiteboardDrawEvent op : tail(teamId, lastOpSeq, pending)) {
+                board.apply(op);
+                seq = op.getSeq();
+            }
+            return new LoadedBoard(new WhiteboardState(teamId, board.dataJson, board.ops, seq), lastOpSeq);
+        });
+    }
+
+    /**
+     * Drop logged operations up to {@code throughSeq}, which a saved canvas now includes.
+     */
+    public void truncate(Long teamId, long throughSeq) {
+        whiteboardOpRepository.deleteThroughSeq(teamId, throughSeq);
+    }
+
+    /**
+     * Serialize folded operations for {@link WhiteboardData#setOpsJson}.
+     */
+    public String writeOps(List<WhiteboardDrawEvent> ops) {
+        return write(ops);
+    }
+
+    public void removeTeam(Long teamId) {
+        whiteboardOpRepository.deleteByTeamId(teamId);
+        afterCommit(() -> logs.remove(teamId));
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.oplog.flush-interval-ms:200}")
+    public synchronized void flush() {
+        Map<TeamLog, Integer> taken = new HashMap<>();
+        List<Object[]> rows = new ArrayList<>();
+        logs.forEach((teamId, log) -> {
+            synchronized (log) {
+                if (!log.pending.isEmpty()) {
+                    taken.put(log, log.pending.size());
+                    for (PendingOp op : log.pending) {
+                        rows.add(new Object[] { teamId, op.seq(), op.type(), op.payload(), op.createdAt() });
+                    }
+                }
+            }
+        });
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            // One transaction, so a failed batch leaves nothing behind and is retried whole
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, rows));
+            taken.forEach((log, count) -> {
+                synchronized (log) {
+                    for (int i = 0; i < count; i++) {
+                        log.pending.poll();
+                    }
+                }
+            });
+            flushes.increment();
+            flushedOps.add(rows.size());
+        } catch (RuntimeException e) {
+            failedFlushes.increment();
+            logger.warn("Flushing {} whiteboard operations failed: {}", rows.size(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${whiteboard.oplog.compaction-interval-ms:30000}",
+        initialDelayString = "${whiteboard.oplog.compaction-interval-ms:30000}")
+    public void compact() {
+        flush();
+        for (Long teamId : whiteboardOpRepository.findTeamIdsWithAtLeast(compactionMinOps)) {
+            if (liveWhiteboardCache.isLive(teamId)) {
+                continue;
+            }
+            compactTeam(teamId);
+        }
+    }
+
+    /**
+     * Fold a team's logged operations into its snapshot and delete them.
+     *
+     * @return number of operations removed from the log
+     */
+    public int compactTeam(Long teamId) {
+        try {
+            Integer removed = transactionTemplate.execute(status -> fold(teamId));
+            compactions.increment();
+            compactedOps.add(removed);
+            return removed;
+        } catch (RuntimeException e) {
+            logger.warn("Compacting the whiteboard of team {} failed: {}", teamId, e.getMessage());
+            return 0;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        int pending = 0;
+        for (TeamLog log : logs.values()) {
+            synchronized (log) {
+                pending += log.pending.size();
+            }
+        }
+        stats.put("teams", logs.size());
+        stats.put("pendingOps", pending);
+        stats.put("appendedOps", appendedOps.sum());
+        stats.put("flushes", flushes.sum());
+        stats.put("flushedOps", flushedOps.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("compactions", compactions.sum());
+        stats.put("compactedOps", compactedOps.sum());
+        return stats;
+    }
+
+    private int fold(Long teamId) {
+        Team team = teamRepository.findById(teamId).orElse(null);
+        if (team == null) {
+            // Operations flushed while the team was being deleted
+            whiteboardOpRepository.deleteByTeamId(teamId);
+            return 0;
+        }
+        WhiteboardData data = whiteboardDataRepository.findForUpdateByTeamId(teamId)
+            .orElseGet(() -> new WhiteboardData(team, "{}"));
+        long lastOpSeq = data.getLastOpSeq() != null ? data.getLastOpSeq() : 0;
+
+        List<Object[]> rows = whiteboardOpRepository.findPayloadsAfter(teamId, lastOpSeq);
+        if (!rows.isEmpty()) {
+            Board board = new Board(data.getDataJson(), readOps(data.getOpsJson()));
+            for (Object[] row : rows) {
+                WhiteboardDrawEvent op = readOp((String) row[1]);
+                op.setSeq((Long) row[0]);
+                board.apply(op);
+            }
+            lastOpSeq = (Long) rows.get(rows.size() - 1)[0];
+            data.setDataJson(board.dataJson);
+            data.setOpsJson(write(board.ops));
+            data.setLastOpSeq(lastOpSeq);
+            whiteboardDataRepository.save(data);
+        }
+        return whiteboardOpRepository.deleteThroughSeq(teamId, lastOpSeq);
+    }
+
+    // Payloads of a team's operations not inserted yet, by seq
+    private TreeMap<Long, String> pending(Long teamId) {
+        TreeMap<Long, String> payloads = new TreeMap<>();
+        TeamLog log = logs.get(teamId);
+        if (log != null) {
+            synchronized (log) {
+                for (PendingOp op : log.pending) {
+                    payloads.put(op.seq(), op.payload());
+                }
+            }
+        }
+        return payloads;
+    }
+
+    /**
+     * Logged operations after {@code afterSeq}, oldest first, including those
+     * in {@code pending}, a copy taken before the transaction's first statement.
+     */
+    private List<WhiteboardDrawEvent> tail(Long teamId, long afterSeq, TreeMap<Long, String> pending) {
+        TreeMap<Long, String> payloads = new TreeMap<>(pending.tailMap(afterSeq, false));
+        for (Object[] row : whiteboardOpRepository.findPayloadsAfter(teamId, afterSeq)) {
+            payloads.putIfAbsent((Long) row[0], (String) row[1]);
+        }
+
+        List<WhiteboardDrawEvent> ops = new ArrayList<>(payloads.size());
+        payloads.forEach((seq, payload) -> {
+            WhiteboardDrawEvent op = readOp(payload);
+            op.setSeq(seq);
+            ops.add(op);
+        });
+        return ops;
+    }
+
+    private TeamLog log(Long teamId) {
+        return logs.computeIfAbsent(teamId, id -> new TeamLog(storedHead(id)));
+    }
+
+    // Compaction deletes folded operations, so the snapshot may hold the highest seq
+    private long storedHead(Long teamId) {
+        return Math.max(whiteboardOpRepository.findMaxSeq(teamId),
+            whiteboardDataRepository.findLastOpSeqByTeamId(teamId).orElse(0L));
+    }
+
+    // The team row lock is held until commit, so the next seq on any node is read after this one is stored
+    private long lockedHead(Long teamId) {
+        jdbcTemplate.queryForObject("SELECT id FROM teams WHERE id = ? FOR UPDATE", Long.class, teamId);
+        return storedHead(teamId);
+    }
+
+    private WhiteboardDrawEvent readOp(String payload) {
+        try {
+            return opMapper.readValue(payload, WhiteboardDrawEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable whiteboard operation", e);
+        }
+    }
+
+    private List<WhiteboardDrawEvent> readOps(String opsJson) {
+        if (opsJson == null || opsJson.isEmpty()) {
+            return List.of();
+        }
+        try {
+            return opMapper.readValue(opsJson, OPS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable whiteboard snapshot", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return opMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unwritable whiteboard operation", e);
+        }
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    /**
+     * A board being folded: a clear drops the saved canvas and every earlier
+     * operation; draws and erases are kept in order.
+     */
+    private static class Board {
+        private String dataJson;
+        private final List<WhiteboardDrawEvent> ops;
+
+        private Board(String dataJson, List<WhiteboardDrawEvent> ops) {
+            this.dataJson = dataJson != null ? dataJson : "{}";
+            this.ops = new ArrayList<>(ops);
+        }
+
+        private void apply(WhiteboardDrawEvent op) {
+            if ("clear".equals(op.getType())) {
+                dataJson = "{}";
+                ops.clear();
+            } else {
+                ops.add(op);
+            }
+        }
+    }
+
+    /**
+     * Sequence head and not yet inserted operations of one team. Guarded by its own monitor.
+     */
+    private static class TeamLog {
+        private long head;
+        private final ArrayDeque<PendingOp> pending = new ArrayDeque<>();
+
+        private TeamLog(long head) {
+            this.head = head;
+        }
+    }
+
+    private record PendingOp(long seq, String type, String payload, Timestamp createdAt) {}
+
+    /**
+     * A loaded board and the seq its stored snapshot covers.
+     */
+    public record LoadedBoard(WhiteboardState state, long snapshotSeq) {}
+}
@@ -1,13 +1,19 @@
 package com.collabsphere.service;
 
+import com.collabsphere.dto.WhiteboardState;
+import com.collabsphere.dto.WhiteboardTiles;
 import com.collabsphere.entity.Team;
 import com.collabsphere.entity.WhiteboardData;
 import com.collabsphere.repository.TeamRepository;
 import com.collabsphere.repository.WhiteboardDataRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Transactional
 public class WhiteboardService {
@@ -18,36 +24,97 @@ public class WhiteboardService {
     @Autowired
     private TeamRepository teamRepository;
 
-    public WhiteboardData getWhiteboardData(Long teamId) {
+    @Autowired
+    private WhiteboardOpLog whiteboardOpLog;
+
+    @Autowired
+    private LiveWhiteboardCache liveWhiteboardCache;
+
+    // No transaction: the board is loaded in one of its own
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public WhiteboardState getWhiteboardData(Long teamId) {
         // Validate team exists
-        Team team = teamRepository.findById(teamId)
-            .orElseThrow(() -> new RuntimeException("Team not found"));
+        if (!teamRepository.existsById(teamId)) {
+            throw new RuntimeException("Team not found");
+        }
         
-        // Get existing whiteboard data or create empty one
-        return whiteboardDataRepository.findByTeamId(teamId)
-            .orElse(new WhiteboardData(team, "{}"));
+        // Includes every operation broadcast so far
+        return liveWhiteboardCache.get(teamId);
     }
 
-    public WhiteboardData saveWhiteboardData(Long teamId, String dataJson) {
+    /**
+     * Replace the board with a canvas saved by a client. It supersedes every
+     * operation logged so far.
+     */
+    // Read committed: a shared op log reads its head after taking the team lock
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public WhiteboardState saveWhiteboardData(Long teamId, String dataJson) {
         // Validate team exists
         Team team = teamRepository.findById(teamId)
             .orElseThrow(() -> new RuntimeException("Team not found"));
         
         // Get existing whiteboard data or create new one
-        WhiteboardData whiteboardData = whiteboardDataRepository.findByTeamId(teamId)
+        WhiteboardData whiteboardData = whiteboardDataRepository.findForUpdateByTeamId(teamId)
             .orElse(new WhiteboardData());
         
+        // A seq of its own, so a live board built on the previous snapshot cannot overwrite this one
+        long seq = whiteboardOpLog.reserve(teamId);
         whiteboardData.setTeam(team);
         whiteboardData.setDataJson(dataJson);
+        whiteboardData.setOpsJson(null);
+        whiteboardData.setLastOpSeq(seq);
+        whiteboardDataRepository.save(whiteboardData);
+        whiteboardOpLog.truncate(teamId, seq);
+        liveWhiteboardCache.discard(teamId);
         
-        return whiteboardDataRepository.save(whiteboardData);
+        return new WhiteboardState(teamId, dataJson, List.of(), seq);
+    }
+
+    /**
+     * Tiles of the region {@code bbox}, given as "minX,minY,maxX,maxY" in canvas units.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public WhiteboardTiles getWhiteboardTiles(Long teamId, String bbox, long since) {
+        double[] region = parseBbox(bbox);
+        // Validate team exists
+        if (!teamRepository.existsById(teamId)) {
+            throw new RuntimeException("Team not found");
+        }
+
+        return liveWhiteboardCache.getTiles(teamId, region[0], region[1], region[2], region[3], since);
     }
 
     public void clearWhiteboardData(Long teamId) {
-        whiteboardDataRepository.findByTeamId(teamId)
-            .ifPresent(data -> {
-                data.setDataJson("{}");
-                whiteboardDataRepository.save(data);
-            });
+        saveWhiteboardData(teamId, "{}");
+    }
+
+    public void removeTeam(Long teamId) {
+        whiteboardDataRepository.deleteByTeamId(teamId);
+        whiteboardOpLog.removeTeam(teamId);
+        liveWhiteboardCache.discard(teamId);
+    }
+
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minX,minY,maxX,maxY");
+        }
+        double[] region = new double[4];
+        try {
+            for (int i = 0; i < 4; i++) {
+                region[i] = Double.parseDouble(parts[i].trim());
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox must be minX,minY,maxX,maxY");
+        }
+        for (double value : region) {
+            if (!Double.isFinite(value)) {
+                throw new IllegalArgumentException("bbox must be finite");
+            }
+        }
+        if (region[0] > region[2] || region[1] > region[3]) {
+            throw new IllegalArgumentException("bbox min must not exceed max");
+        }
+        return region;
     }
-}
\ No newline at end of file
+}
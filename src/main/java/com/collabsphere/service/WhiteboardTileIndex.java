@@ -0,0 +1,159 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.dto.WhiteboardTile;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed grid of square tiles over a board's draw and erase operations, so a
+ * client can load just its viewport. An operation goes into every tile that
+ * its segment's bounding box, widened by half the line width, overlaps; one
+ * overlapping more than MAX_TILES_PER_OP tiles goes into the wide bucket
+ * instead. Only non-empty tiles are stored. Not thread-safe.
+ */
+class WhiteboardTileIndex {
+
+    private static final int MAX_TILES_PER_OP = 64;
+
+    private static final Comparator<WhiteboardTile> ROW_MAJOR =
+        Comparator.comparingInt(WhiteboardTile::getY).thenComparingInt(WhiteboardTile::getX);
+
+    private final int tileSize;
+    private final Map<Long, Tile> tiles = new HashMap<>();
+    private final Tile wide = new Tile(0, 0);
+    private long resetSeq;
+
+    WhiteboardTileIndex(int tileSize, long resetSeq) {
+        this.tileSize = tileSize;
+        this.resetSeq = resetSeq;
+    }
+
+    int tileSize() {
+        return tileSize;
+    }
+
+    long resetSeq() {
+        return resetSeq;
+    }
+
+    void add(WhiteboardDrawEvent op) {
+        if (op.getX() == null || op.getY() == null || op.getSeq() == null) {
+            return;
+        }
+        double x = op.getX();
+        double y = op.getY();
+        double prevX = op.getPrevX() != null ? op.getPrevX() : x;
+        double prevY = op.getPrevY() != null ? op.getPrevY() : y;
+        double margin = op.getLineWidth() != null ? Math.max(op.getLineWidth(), 0) / 2.0 : 0;
+        int minX = tile(Math.min(x, prevX) - margin);
+        int maxX = tile(Math.max(x, prevX) + margin);
+        int minY = tile(Math.min(y, prevY) - margin);
+        int maxY = tile(Math.max(y, prevY) + margin);
+
+        if (tileCount(minX, minY, maxX, maxY) > MAX_TILES_PER_OP) {
+            wide.add(op);
+            return;
+        }
+        // Long counters, so a range ending at Integer.MAX_VALUE terminates
+        for (long tileY = minY; tileY <= maxY; tileY++) {
+            for (long tileX = minX; tileX <= maxX; tileX++) {
+                int column = (int) tileX;
+                int row = (int) tileY;
+                tiles.computeIfAbsent(key(column, row), k -> new Tile(column, row)).add(op);
+            }
+        }
+    }
+
+    /**
+     * Drop every operation; the board was cleared at {@code seq}.
+     */
+    void reset(long seq) {
+        tiles.clear();
+        wide.ops.clear();
+        wide.version = 0;
+        resetSeq = seq;
+    }
+
+    /**
+     * Non-empty tiles overlapping the region, in row-major order. Tiles whose
+     * version is at most {@code since} come without operations, unless the
+     * board was reset after it.
+     */
+    List<WhiteboardTile> query(double minX, double minY, double maxX, double maxY, long since) {
+        int fromX = tile(minX);
+        int toX = tile(maxX);
+        int fromY = tile(minY);
+        int toY = tile(maxY);
+
+        List<WhiteboardTile> result = new ArrayList<>();
+        if (tileCount(fromX, fromY, toX, toY) <= tiles.size()) {
+            for (long tileY = fromY; tileY <= toY; tileY++) {
+                for (long tileX = fromX; tileX <= toX; tileX++) {
+                    Tile tile = tiles.get(key((int) tileX, (int) tileY));
+                    if (tile != null) {
+                        result.add(tile.view(since));
+                    }
+                }
+            }
+        } else {
+            // Wider than the board itself: scan the stored tiles instead
+            for (Tile tile : tiles.values()) {
+                if (tile.x >= fromX && tile.x <= toX && tile.y >= fromY && tile.y <= toY) {
+                    result.add(tile.view(since));
+                }
+            }
+            result.sort(ROW_MAJOR);
+        }
+        return result;
+    }
+
+    WhiteboardTile wide(long since) {
+        return wide.ops.isEmpty() ? null : wide.view(since);
+    }
+
+    private int tile(double coordinate) {
+        // Out-of-range coordinates saturate at the edge tiles
+        return (int) Math.floor(coordinate / tileSize);
+    }
+
+    // Saturates at Long.MAX_VALUE: full-range sides would overflow the product
+    private static long tileCount(int minX, int minY, int maxX, int maxY) {
+        long width = (long) maxX - minX + 1;
+        long height = (long) maxY - minY + 1;
+        if (width <= 0 || height <= 0) {
+            return 0;
+        }
+        return width > Long.MAX_VALUE / height ? Long.MAX_VALUE : width * height;
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private class Tile {
+        private final int x;
+        private final int y;
+        private final List<WhiteboardDrawEvent> ops = new ArrayList<>();
+        private long version;
+
+        private Tile(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        private void add(WhiteboardDrawEvent op) {
+            ops.add(op);
+            version = op.getSeq();
+        }
+
+        private WhiteboardTile view(long since) {
+            boolean current = version <= since && since >= resetSeq;
+            return new WhiteboardTile(x, y, version, current ? null : new ArrayList<>(ops));
+        }
+    }
+}
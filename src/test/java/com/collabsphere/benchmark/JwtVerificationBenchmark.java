@@ -0,0 +1,75 @@
+package com.collabsphere.benchmark;
+
+import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.security.JwtUtils;
+import com.collabsphere.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validate + extract throughput of the previous per-call key/parser rebuild
+ * (token parsed twice) against the shared parser with a single parse.
+ * Run {@link #main} after {@code mvn test-compile}, or org.openjdk.jmh.Main
+ * on the test classpath; the GC profiler reports allocation per operation.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsLongEnoughForHS512SignaturesToBeAccepted0123456789abcdef";
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 86400000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsEnabled", true);
+        jwtUtils.init();
+        token = jwtUtils.generateJwtToken(
+            UserPrincipal.create(42L, "student@example.com", null, "Bench Student", UserRole.STUDENT));
+    }
+
+    @Benchmark
+    public Claims rebuildParserAndParseTwice() {
+        // Mirrors the former validateJwtToken + getClaimsFromJwtToken sequence
+        Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .build()
+            .parseClaimsJws(token);
+        return Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+            .build()
+            .parseClaimsJws(token)
+            .getBody();
+    }
+
+    @Benchmark
+    public Claims sharedParserSinglePass() {
+        return jwtUtils.parseClaims(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+            .include(JwtVerificationBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,139 @@
+package com.collabsphere.benchmark;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.service.WhiteboardBinaryCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Broker-side cost of 1,000 pointer-move events: decode what the client sent
+ * and encode what subscribers receive, as JSON (one event per frame) and as
+ * binary frames of pointsPerFrame events. {@link #main} first prints the wire
+ * bytes per event of both; the GC profiler reports allocation per 1k events.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WhiteboardCodecBenchmark {
+
+    private static final int EVENTS = 1000;
+
+    @Param({"1", "4", "16"})
+    private int pointsPerFrame;
+
+    private ObjectMapper objectMapper;
+    private List<byte[]> jsonFrames;
+    private List<byte[]> binaryFrames;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        List<WhiteboardDrawEvent> events = strokes();
+        jsonFrames = new ArrayList<>();
+        for (WhiteboardDrawEvent event : events) {
+            jsonFrames.add(objectMapper.writeValueAsBytes(event));
+        }
+        binaryFrames = new ArrayList<>();
+        for (int i = 0; i < events.size(); i += pointsPerFrame) {
+            binaryFrames.add(WhiteboardBinaryCodec.encode(events.subList(i, Math.min(i + pointsPerFrame, events.size()))));
+        }
+    }
+
+    @Benchmark
+    public long json() throws IOException {
+        long bytes = 0;
+        long seq = 0;
+        for (byte[] frame : jsonFrames) {
+            WhiteboardDrawEvent event = objectMapper.readValue(frame, WhiteboardDrawEvent.class);
+            event.setTimestamp(1_700_000_000_000L);
+            event.setSeq(++seq);
+            bytes += objectMapper.writeValueAsBytes(event).length;
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    public long binary() {
+        long bytes = 0;
+        long seq = 0;
+        for (byte[] frame : binaryFrames) {
+            List<WhiteboardDrawEvent> events = WhiteboardBinaryCodec.decode(frame);
+            for (WhiteboardDrawEvent event : events) {
+                event.setTimestamp(1_700_000_000_000L);
+                event.setSeq(++seq);
+            }
+            bytes += WhiteboardBinaryCodec.encode(events).length;
+        }
+        return bytes;
+    }
+
+    // Strokes of 50 connected segments in a handful of colours, like freehand drawing
+    private static List<WhiteboardDrawEvent> strokes() {
+        Random random = new Random(42);
+        String[] colors = { "#000000", "#ff0000", "#0000ff", "#3a7bd5" };
+        List<WhiteboardDrawEvent> events = new ArrayList<>(EVENTS);
+        double x = 0;
+        double y = 0;
+        for (int i = 0; i < EVENTS; i++) {
+            if (i % 50 == 0) {
+                x = random.nextDouble() * 1920;
+                y = random.nextDouble() * 1080;
+            }
+            WhiteboardDrawEvent event = new WhiteboardDrawEvent();
+            event.setType("draw");
+            event.setColor(colors[(i / 50) % colors.length]);
+            event.setLineWidth(3);
+            event.setUserId("42");
+            event.setPrevX(x);
+            event.setPrevY(y);
+            x += random.nextDouble() * 8 - 4;
+            y += random.nextDouble() * 8 - 4;
+            event.setX(x);
+            event.setY(y);
+            events.add(event);
+        }
+        return events;
+    }
+
+    public static void main(String[] args) throws Exception {
+        printWireSizes();
+        Options options = new OptionsBuilder()
+            .include(WhiteboardCodecBenchmark.class.getSimpleName())
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+
+    private static void printWireSizes() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<WhiteboardDrawEvent> events = strokes();
+        long json = 0;
+        long seq = 1_000_000L;
+        for (WhiteboardDrawEvent event : events) {
+            event.setTimestamp(1_700_000_000_000L);
+            event.setSeq(++seq);
+            json += objectMapper.writeValueAsBytes(event).length;
+        }
+        System.out.printf("json: %.1f bytes/event%n", (double) json / EVENTS);
+        for (int pointsPerFrame : new int[] { 1, 4, 16 }) {
+            long binary = 0;
+            for (int i = 0; i < EVENTS; i += pointsPerFrame) {
+                binary += WhiteboardBinaryCodec.encode(events.subList(i, Math.min(i + pointsPerFrame, EVENTS))).length;
+            }
+            System.out.printf("binary, %d per frame: %.1f bytes/event%n", pointsPerFrame, (double) binary / EVENTS);
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package com.collabsphere.config;
+
+import com.collabsphere.CollabSphereApplication;
+import com.collabsphere.entity.ClassRoom;
+import com.collabsphere.entity.Project;
+import com.collabsphere.entity.Team;
+import com.collabsphere.entity.User;
+import com.collabsphere.entity.enums.UserRole;
+import com.collabsphere.repository.ClassRoomRepository;
+import com.collabsphere.repository.ProjectRepository;
+import com.collabsphere.repository.TeamRepository;
+import com.collabsphere.repository.UserRepository;
+import com.collabsphere.security.JwtUtils;
+import com.collabsphere.security.UserPrincipal;
+import com.collabsphere.dto.PresenceState;
+import com.collabsphere.service.MessageSequencer;
+import com.collabsphere.service.PresenceService;
+import com.collabsphere.service.TeamMembershipIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+
+import java.lang.reflect.Type;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts two application instances in one JVM, sharing a database and the
+ * in-process broker bus, and checks that team chat sent through one instance
+ * reaches subscribers connected to the other.
+ */
+class MultiNodeBrokerIntegrationTest {
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    // One database per test, shared by its nodes
+    private final String database = "multinode-" + UUID.randomUUID();
+
+    @AfterEach
+    void tearDown() {
+        sessions.stream().filter(StompSession::isConnected).forEach(StompSession::disconnect);
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void teamTopicMessagesReachSubscribersOnOtherNode() throws Exception {
+        ConfigurableApplicationContext nodeA = startNode();
+        // Created after node A started, like a team added through another node
+        Long[] ids = createTeamWithStudent(nodeA);
+        Long teamId = ids[0];
+        ConfigurableApplicationContext nodeB = startNode();
+
+        String token = tokenFor(nodeA, ids[1]);
+        BlockingQueue<Map<?, ?>> receivedOnA = new LinkedBlockingQueue<>();
+        BlockingQueue<Map<?, ?>> receivedOnB = new LinkedBlockingQueue<>();
+        StompSession sessionA = connect(nodeA, token);
+        StompSession sessionB = connect(nodeB, token);
+        sessionA.subscribe("/topic/team/" + teamId, collectInto(receivedOnA));
+        sessionB.subscribe("/topic/team/" + teamId, collectInto(receivedOnB));
+        Thread.sleep(500);
+
+        sessionB.send("/app/chat/" + teamId, Map.of("content", "sent via B"));
+        Map<?, ?> fromB = receivedOnA.poll(10, TimeUnit.SECONDS);
+        assertNotNull(fromB, "node A subscriber did not receive node B's message");
+        assertEquals("sent via B", fromB.get("content"));
+        assertEquals("sent via B", receivedOnB.poll(10, TimeUnit.SECONDS).get("content"));
+
+        sessionA.send("/app/chat/" + teamId, Map.of("content", "sent via A"));
+        Map<?, ?> fromA = receivedOnB.poll(10, TimeUnit.SECONDS);
+        assertNotNull(fromA, "node B subscriber did not receive node A's message");
+        assertEquals("sent via A", fromA.get("content"));
+    }
+
+    @Test
+    void concurrentSendsFromBothNodesShareOneTeamSequence() throws Exception {
+        ConfigurableApplicationContext nodeA = startNode();
+        ConfigurableApplicationContext nodeB = startNode();
+        Long[] ids = createTeamWithStudent(nodeA);
+        Long teamId = ids[0];
+
+        String token = tokenFor(nodeA, ids[1]);
+        BlockingQueue<Map<?, ?>> receivedOnA = new LinkedBlockingQueue<>();
+        BlockingQueue<Map<?, ?>> receivedOnB = new LinkedBlockingQueue<>();
+        StompSession sessionA = connect(nodeA, token);
+        StompSession sessionB = connect(nodeB, token);
+        sessionA.subscribe("/topic/team/" + teamId, collectInto(receivedOnA));
+        sessionB.subscribe("/topic/team/" + teamId, collectInto(receivedOnB));
+        Thread.sleep(500);
+
+        int perNode = 10;
+        Thread senderA = new Thread(() -> sendAll(sessionA, teamId, "A", perNode));
+        Thread senderB = new Thread(() -> sendAll(sessionB, teamId, "B", perNode));
+        senderA.start();
+        senderB.start();
+        senderA.join();
+        senderB.join();
+
+        Set<Long> expected = LongStream.rangeClosed(1, 2L * perNode).boxed().collect(Collectors.toSet());
+        assertEquals(expected, receiveSeqs(receivedOnA, 2 * perNode));
+        assertEquals(expected, receiveSeqs(receivedOnB, 2 * perNode));
+        assertEquals(2L * perNode, nodeA.getBean(MessageSequencer.class).committedHead(teamId));
+        assertEquals(2L * perNode, nodeB.getBean(MessageSequencer.class).committedHead(teamId));
+    }
+
+    @Test
+    void presenceCountsSessionsOnEveryNode() throws Exception {
+        ConfigurableApplicationContext nodeA = startNode();
+        ConfigurableApplicationContext nodeB = startNode();
+        Long[] ids = createTeamWithStudent(nodeA);
+        Long teamId = ids[0];
+        String token = tokenFor(nodeA, ids[1]);
+        UserPrincipal student = UserPrincipal.create(nodeA.getBean(UserRepository.class).findById(ids[1]).orElseThrow());
+        awaitMembership(nodeA, ids[1], teamId);
+        awaitMembership(nodeB, ids[1], teamId);
+
+        StompSession sessionA = connect(nodeA, token);
+        Thread.sleep(500);
+        List<PresenceState> seenByB = nodeB.getBean(PresenceService.class).getPresence(teamId, student);
+        assertEquals(List.of(ids[1]), seenByB.stream().map(PresenceState::getUserId).toList());
+
+        BlockingQueue<Map<?, ?>> presenceOnB = new LinkedBlockingQueue<>();
+        StompSession sessionB = connect(nodeB, token);
+        sessionB.subscribe("/topic/team/" + teamId + "/presence", collectInto(presenceOnB));
+        Thread.sleep(500);
+        presenceOnB.clear();
+
+        // Still connected through node B, so node A must not report the student offline
+        sessionA.disconnect();
+        assertNull(presenceOnB.poll(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void refusesToStartWithNodeLocalState() {
+        assertStartupFails("cluster.enabled=true", "--cluster.enabled=false");
+    }
+
+    @Test
+    void refusesToStartWithChatArchive() {
+        assertStartupFails("chat.archive.enabled=false", "--cluster.enabled=true", "--chat.archive.enabled=true");
+    }
+
+    private void assertStartupFails(String remedy, String... args) {
+        Exception failure = assertThrows(Exception.class, () -> startNode(args));
+        Throwable cause = failure;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        assertInstanceOf(IllegalStateException.class, cause);
+        assertTrue(cause.getMessage().contains(remedy));
+    }
+
+    private ConfigurableApplicationContext startNode() {
+        return startNode("--cluster.enabled=true");
+    }
+
+    private ConfigurableApplicationContext startNode(String... args) {
+        List<String> arguments = new ArrayList<>(List.of("--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+            "--spring.jpa.hibernate.ddl-auto=update",
+            "--websocket.broker.mode=in-process",
+            "--jwt.claims.enabled=true"));
+        arguments.addAll(List.of(args));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(CollabSphereApplication.class)
+            .profiles("test")
+            .run(arguments.toArray(String[]::new));
+        nodes.add(context);
+        return context;
+    }
+
+    private void sendAll(StompSession session, Long teamId, String node, int count) {
+        for (int i = 0; i < count; i++) {
+            session.send("/app/chat/" + teamId, Map.of("content", node + i));
+        }
+    }
+
+    private Set<Long> receiveSeqs(BlockingQueue<Map<?, ?>> received, int count) throws InterruptedException {
+        Set<Long> seqs = new HashSet<>();
+        for (int i = 0; i < count; i++) {
+            Map<?, ?> message = received.poll(10, TimeUnit.SECONDS);
+            assertNotNull(message, "only " + i + " of " + count + " messages arrived");
+            seqs.add(((Number) message.get("seq")).longValue());
+        }
+        return seqs;
+    }
+
+    // Nodes pick up a team created elsewhere on their next membership refresh
+    private void awaitMembership(ConfigurableApplicationContext node, Long userId, Long teamId) throws InterruptedException {
+        TeamMembershipIndex index = node.getBean(TeamMembershipIndex.class);
+        long deadline = System.currentTimeMillis() + 15_000;
+        while (LongStream.of(index.getTeamIds(userId)).noneMatch(id -> id == teamId)) {
+            assertTrue(System.currentTimeMillis() < deadline, "membership was not indexed");
+            Thread.sleep(100);
+        }
+    }
+
+    private Long[] createTeamWithStudent(ConfigurableApplicationContext node) {
+        UserRepository userRepository = node.getBean(UserRepository.class);
+        ClassRoomRepository classRoomRepository = node.getBean(ClassRoomRepository.class);
+        ProjectRepository projectRepository = node.getBean(ProjectRepository.class);
+        TeamRepository teamRepository = node.getBean(TeamRepository.class);
+
+        return node.getBean(TransactionTemplate.class).execute(status -> {
+            User lecturer = userRepository.save(new User("lecturer@multinode.test", "x", "Lecturer", UserRole.LECTURER));
+            User student = userRepository.save(new User("student@multinode.test", "x", "Student", UserRole.STUDENT));
+            ClassRoom classRoom = classRoomRepository.save(new ClassRoom("Class", "MULTI-1", lecturer));
+            Project project = projectRepository.save(
+                new Project("Project", "Multi-node", LocalDateTime.now().plusDays(7), classRoom));
+            Team team = new Team("Team", project);
+            team.getMembers().add(student);
+            team = teamRepository.save(team);
+            return new Long[] { team.getId(), student.getId() };
+        });
+    }
+
+    private String tokenFor(ConfigurableApplicationContext node, Long userId) {
+        User user = node.getBean(UserRepository.class).findById(userId).orElseThrow();
+        return node.getBean(JwtUtils.class).generateJwtToken(UserPrincipal.create(user));
+    }
+
+    private StompSession connect(ConfigurableApplicationContext node, String token) throws Exception {
+        int port = ((ServletWebServerApplicationContext) node).getWebServer().getPort();
+        WebSocketStompClient client = new WebSocketStompClient(
+            new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+        client.setMessageConverter(new MappingJackson2MessageConverter());
+
+        StompHeaders connectHeaders = new StompHeaders();
+        connectHeaders.add("Authorization", "Bearer " + token);
+        StompSession session = client.connectAsync("ws://localhost:" + port + "/api/ws", new WebSocketHttpHeaders(),
+                connectHeaders, new StompSessionHandlerAdapter() {})
+            .get(10, TimeUnit.SECONDS);
+        sessions.add(session);
+        return session;
+    }
+
+    private StompFrameHandler collectInto(BlockingQueue<Map<?, ?>> received) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return Map.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((Map<?, ?>) payload);
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package com.collabsphere.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @Test
+    void fullBucketAllowsBurstUpToCapacity() {
+        TokenBucketRateLimiter limiter = limiter(3, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(1000, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void refillsOneTokenPerIntervalAndReportsWait() {
+        TokenBucketRateLimiter limiter = limiter(1, 1, 100);
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        now.addAndGet(999);
+        assertEquals(1, limiter.tryAcquire("a"));
+        now.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(1000, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void waitIsRoundedUpToWholeMilliseconds() {
+        TokenBucketRateLimiter limiter = limiter(1, 3, 100);
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        assertEquals(334, limiter.tryAcquire("a"));
+        now.addAndGet(333);
+        assertEquals(1, limiter.tryAcquire("a"));
+        now.addAndGet(1);
+        assertEquals(0, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        TokenBucketRateLimiter limiter = limiter(2, 10, 100);
+        assertEquals(0, limiter.tryAcquire("a"));
+
+        now.addAndGet(3_600_000);
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(100, limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        TokenBucketRateLimiter limiter = limiter(1, 1, 100);
+
+        assertEquals(0, limiter.tryAcquire("a"));
+        assertEquals(0, limiter.tryAcquire("b"));
+        assertEquals(1000, limiter.tryAcquire("a"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void evictsOnlyRefilledBucketsWhenFull() {
+        TokenBucketRateLimiter limiter = limiter(1, 1, 2);
+        limiter.tryAcquire("a");
+        limiter.tryAcquire("b");
+
+        // Both still draining: nothing to evict, the cap is soft
+        limiter.tryAcquire("c");
+        assertEquals(3, limiter.size());
+
+        now.addAndGet(1000);
+        limiter.tryAcquire("d");
+        assertEquals(1, limiter.size());
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1049, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> limiter(1, 0, 100));
+    }
+
+    private TokenBucketRateLimiter limiter(int capacity, int refillPerSecond, int maxBuckets) {
+        return new TokenBucketRateLimiter(capacity, refillPerSecond, maxBuckets, now::get);
+    }
+}
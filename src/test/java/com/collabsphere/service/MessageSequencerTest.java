@@ -0,0 +1,145 @@
+package com.collabsphere.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageSequencerTest {
+
+    private static final String MAX_SEQ_SQL = "SELECT COALESCE(MAX(seq), 0) FROM messages WHERE team_id = ?";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MessageSequencer sequencer = new MessageSequencer();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(sequencer, "jdbcTemplate", jdbcTemplate);
+        when(jdbcTemplate.queryForObject(MAX_SEQ_SQL, Long.class, 1L)).thenReturn(41L);
+        when(jdbcTemplate.queryForObject(MAX_SEQ_SQL, Long.class, 2L)).thenReturn(0L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void numbersContinueFromStoredMaximumPerTeam() {
+        assertEquals(42, sequencer.next(1L));
+        assertEquals(43, sequencer.next(1L));
+        assertEquals(1, sequencer.next(2L));
+        assertEquals(2, sequencer.size());
+    }
+
+    @Test
+    void headIsStoredMaximumBeforeAnySend() {
+        assertEquals(41, sequencer.committedHead(1L));
+        assertEquals(0, sequencer.committedHead(2L));
+    }
+
+    @Test
+    void headStopsBelowOldestInFlightSeq() {
+        long first = sequencer.next(1L);
+        long second = sequencer.next(1L);
+        long third = sequencer.next(1L);
+        assertEquals(41, sequencer.committedHead(1L));
+
+        // Later numbers finishing first do not move the head past the gap
+        sequencer.complete(1L, third);
+        sequencer.complete(1L, second);
+        assertEquals(41, sequencer.committedHead(1L));
+
+        sequencer.complete(1L, first);
+        assertEquals(44, sequencer.committedHead(1L));
+    }
+
+    @Test
+    void headAdvancesUpToNextInFlightSeq() {
+        long first = sequencer.next(1L);
+        long second = sequencer.next(1L);
+
+        sequencer.complete(1L, first);
+        assertEquals(first, sequencer.committedHead(1L));
+
+        sequencer.complete(1L, second);
+        assertEquals(second, sequencer.committedHead(1L));
+    }
+
+    @Test
+    void teamsDoNotBlockEachOther() {
+        sequencer.next(1L);
+        long other = sequencer.next(2L);
+        sequencer.complete(2L, other);
+
+        assertEquals(41, sequencer.committedHead(1L));
+        assertEquals(1, sequencer.committedHead(2L));
+    }
+
+    @Test
+    void completesImmediatelyOutsideTransaction() {
+        long seq = sequencer.next(1L);
+        sequencer.completeAfterTransaction(1L, seq);
+        assertEquals(seq, sequencer.committedHead(1L));
+    }
+
+    @Test
+    void completesWhenTransactionEndsEvenOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        long seq = sequencer.next(1L);
+        sequencer.completeAfterTransaction(1L, seq);
+        assertEquals(41, sequencer.committedHead(1L));
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(seq, sequencer.committedHead(1L));
+    }
+
+    @Test
+    void backfillNumbersUnsequencedRowsAfterStoredMaximum() {
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of(
+            Map.of("id", 7L, "team_id", 1L),
+            Map.of("id", 9L, "team_id", 1L),
+            Map.of("id", 8L, "team_id", 2L)));
+
+        sequencer.backfill();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE messages SET seq = ? WHERE id = ?"), updates.capture());
+        List<Object[]> rows = updates.getValue();
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[] { 42L, 7L }, rows.get(0));
+        assertArrayEquals(new Object[] { 43L, 9L }, rows.get(1));
+        assertArrayEquals(new Object[] { 1L, 8L }, rows.get(2));
+    }
+
+    @Test
+    void backfillWithNothingToNumberWritesNothing() {
+        when(jdbcTemplate.queryForList(anyString())).thenReturn(List.of());
+
+        sequencer.backfill();
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(List.class));
+    }
+}
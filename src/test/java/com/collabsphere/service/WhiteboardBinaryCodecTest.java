@@ -0,0 +1,283 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhiteboardBinaryCodecTest {
+
+    private static final long TIMESTAMP = 1_700_000_000_000L;
+
+    @Test
+    void connectedSegmentsRoundTripAsOneRun() {
+        List<WhiteboardDrawEvent> events = List.of(
+            segment("draw", 0, 0, 10, 5, 5L),
+            segment("draw", 10, 5, 12.5, -3, 6L),
+            segment("draw", 12.5, -3, 20, 0.25, 7L));
+
+        byte[] frame = WhiteboardBinaryCodec.encode(events);
+
+        assertEquals(1, frame[1]);
+        assertEvents(events, WhiteboardBinaryCodec.decode(frame));
+    }
+
+    @Test
+    void dotStartsRunWithoutPreviousPoint() {
+        WhiteboardDrawEvent dot = segment("draw", 0, 0, 4, 4, 1L);
+        dot.setPrevX(null);
+        dot.setPrevY(null);
+        List<WhiteboardDrawEvent> events = List.of(dot, segment("draw", 4, 4, 8, 6, 2L));
+
+        byte[] frame = WhiteboardBinaryCodec.encode(events);
+
+        assertEquals(1, frame[1]);
+        List<WhiteboardDrawEvent> decoded = WhiteboardBinaryCodec.decode(frame);
+        assertEvents(events, decoded);
+        assertNull(decoded.get(0).getPrevX());
+    }
+
+    @Test
+    void paletteColoursAreCaseInsensitive() {
+        WhiteboardDrawEvent event = segment("draw", 0, 0, 1, 1, 1L);
+        event.setColor("#FFA500");
+
+        WhiteboardDrawEvent decoded = roundTrip(event);
+
+        assertEquals("#ffa500", decoded.getColor());
+    }
+
+    @Test
+    void otherHexColoursTravelAsRgb() {
+        WhiteboardDrawEvent event = segment("draw", 0, 0, 1, 1, 1L);
+        event.setColor("#12AB3c");
+
+        byte[] frame = WhiteboardBinaryCodec.encode(List.of(event));
+
+        assertEquals("#12ab3c", WhiteboardBinaryCodec.decode(frame).get(0).getColor());
+        event.setColor("#000001");
+        assertEquals(frame.length, WhiteboardBinaryCodec.encode(List.of(event)).length);
+    }
+
+    @Test
+    void namedAndShortColoursTravelAsStrings() {
+        for (String color : List.of("red", "#abc", "rgba(0, 0, 0, 0.5)", "#12345g")) {
+            WhiteboardDrawEvent event = segment("draw", 0, 0, 1, 1, 1L);
+            event.setColor(color);
+            assertEquals(color, roundTrip(event).getColor());
+        }
+    }
+
+    @Test
+    void nullFieldsStayNull() {
+        WhiteboardDrawEvent clear = new WhiteboardDrawEvent();
+        clear.setType("clear");
+
+        WhiteboardDrawEvent decoded = roundTrip(clear);
+
+        assertEquals("clear", decoded.getType());
+        assertNull(decoded.getX());
+        assertNull(decoded.getY());
+        assertNull(decoded.getPrevX());
+        assertNull(decoded.getPrevY());
+        assertNull(decoded.getColor());
+        assertNull(decoded.getLineWidth());
+        assertNull(decoded.getUserId());
+        assertNull(decoded.getSeq());
+        assertNull(decoded.getTimestamp());
+    }
+
+    @Test
+    void zeroValuesAreNotTakenForNull() {
+        WhiteboardDrawEvent event = segment("erase", 0, 0, 0, 0, 0L);
+        event.setLineWidth(0);
+        event.setUserId("");
+
+        WhiteboardDrawEvent decoded = roundTrip(event);
+
+        assertEquals(0, decoded.getLineWidth());
+        assertEquals("", decoded.getUserId());
+        assertEquals(0L, decoded.getSeq());
+    }
+
+    @Test
+    void otherTypesKeepTheirName() {
+        WhiteboardDrawEvent cursor = new WhiteboardDrawEvent();
+        cursor.setType("cursor");
+        cursor.setX(3.5);
+        cursor.setY(-7.25);
+        cursor.setUserId("người dùng");
+
+        WhiteboardDrawEvent decoded = roundTrip(cursor);
+
+        assertEquals("cursor", decoded.getType());
+        assertEquals(3.5, decoded.getX());
+        assertEquals(-7.25, decoded.getY());
+        assertEquals("người dùng", decoded.getUserId());
+        assertNull(decoded.getSeq());
+    }
+
+    @Test
+    void runsBreakOnEveryChange() {
+        WhiteboardDrawEvent otherColour = segment("draw", 2, 2, 3, 3, 2L);
+        otherColour.setColor("#00ff00");
+        WhiteboardDrawEvent otherWidth = segment("draw", 3, 3, 4, 4, 3L);
+        otherWidth.setLineWidth(9);
+        WhiteboardDrawEvent otherUser = segment("draw", 4, 4, 5, 5, 4L);
+        otherUser.setUserId("u2");
+        WhiteboardDrawEvent clear = new WhiteboardDrawEvent();
+        clear.setType("clear");
+        clear.setSeq(9L);
+        List<WhiteboardDrawEvent> events = List.of(
+            segment("draw", 1, 1, 2, 2, 1L),
+            otherColour,
+            otherWidth,
+            otherUser,
+            // Type, seq gap and disconnected start
+            segment("erase", 5, 5, 6, 6, 5L),
+            segment("erase", 6, 6, 7, 7, 7L),
+            segment("erase", 0, 0, 1, 1, 8L),
+            clear);
+
+        byte[] frame = WhiteboardBinaryCodec.encode(events);
+
+        assertEquals(events.size(), frame[1]);
+        assertEvents(events, WhiteboardBinaryCodec.decode(frame));
+    }
+
+    @Test
+    void runEventsShareFirstTimestamp() {
+        WhiteboardDrawEvent later = segment("draw", 1, 1, 2, 2, 2L);
+        later.setTimestamp(TIMESTAMP + 16);
+
+        List<WhiteboardDrawEvent> decoded = WhiteboardBinaryCodec.decode(
+            WhiteboardBinaryCodec.encode(List.of(segment("draw", 0, 0, 1, 1, 1L), later)));
+
+        assertEquals(TIMESTAMP, decoded.get(1).getTimestamp());
+    }
+
+    @Test
+    void deltasDoNotDrift() {
+        List<WhiteboardDrawEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            events.add(segment("draw", 1000 + i * 0.1, i * 0.3, 1000 + (i + 1) * 0.1, (i + 1) * 0.3, i + 1L));
+        }
+
+        List<WhiteboardDrawEvent> decoded = WhiteboardBinaryCodec.decode(WhiteboardBinaryCodec.encode(events));
+
+        assertEquals(events.size(), decoded.size());
+        for (int i = 0; i < events.size(); i++) {
+            assertEquals(events.get(i).getX(), decoded.get(i).getX(), 1e-3);
+            assertEquals(events.get(i).getY(), decoded.get(i).getY(), 1e-3);
+            if (i > 0) {
+                assertEquals(decoded.get(i - 1).getX(), decoded.get(i).getPrevX());
+                assertEquals(decoded.get(i - 1).getY(), decoded.get(i).getPrevY());
+            }
+        }
+    }
+
+    @Test
+    void emptyFrameRoundTrips() {
+        byte[] frame = WhiteboardBinaryCodec.encode(List.of());
+
+        assertEquals(2, frame.length);
+        assertTrue(WhiteboardBinaryCodec.decode(frame).isEmpty());
+    }
+
+    @Test
+    void everyTruncationIsRejected() {
+        WhiteboardDrawEvent named = segment("draw", 9, 9, 10, 10, 9L);
+        named.setColor("teal");
+        byte[] frame = WhiteboardBinaryCodec.encode(List.of(
+            segment("draw", 0, 0, 1, 1, 1L), segment("draw", 1, 1, 2, 2, 2L), named));
+
+        for (int length = 0; length < frame.length; length++) {
+            byte[] truncated = Arrays.copyOf(frame, length);
+            assertThrows(IllegalArgumentException.class, () -> WhiteboardBinaryCodec.decode(truncated),
+                "length " + length);
+        }
+    }
+
+    @Test
+    void malformedFramesAreRejected() {
+        // Version
+        assertMalformed(2, 0);
+        // Run count beyond what the frame can hold
+        assertMalformed(1, 5, 0, 0xFF, 0, 0, 0, 0, 0);
+        // Unknown type and colour
+        assertMalformed(1, 1, 4, 0xFF, 0, 0, 0, 0, 0);
+        assertMalformed(1, 1, 0, 0x20, 0, 0, 0, 0, 0);
+        // User id longer than the frame
+        assertMalformed(1, 1, 0, 0xFF, 0, 50, 0, 0, 0);
+        // Point count beyond what the frame can hold
+        assertMalformed(1, 1, 0, 0xFF, 0, 0, 0, 0, 2, 0, 0, 0, 0, 0, 0, 0, 0);
+        // Varint longer than 64 bits
+        assertMalformed(1, 1, 0, 0xFF, 0, 0,
+            0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0, 0, 0);
+    }
+
+    @Test
+    void onlyOctetStreamIsBinary() {
+        assertTrue(WhiteboardBinaryCodec.isBinary(MimeTypeUtils.APPLICATION_OCTET_STREAM));
+        assertFalse(WhiteboardBinaryCodec.isBinary(MimeTypeUtils.APPLICATION_JSON));
+        assertFalse(WhiteboardBinaryCodec.isBinary(null));
+    }
+
+    private static WhiteboardDrawEvent segment(String type, double prevX, double prevY, double x, double y, Long seq) {
+        WhiteboardDrawEvent event = new WhiteboardDrawEvent();
+        event.setType(type);
+        event.setPrevX(prevX);
+        event.setPrevY(prevY);
+        event.setX(x);
+        event.setY(y);
+        event.setColor("#ff0000");
+        event.setLineWidth(4);
+        event.setUserId("u1");
+        event.setSeq(seq);
+        event.setTimestamp(TIMESTAMP);
+        return event;
+    }
+
+    private static WhiteboardDrawEvent roundTrip(WhiteboardDrawEvent event) {
+        List<WhiteboardDrawEvent> decoded = WhiteboardBinaryCodec.decode(WhiteboardBinaryCodec.encode(List.of(event)));
+        assertEquals(1, decoded.size());
+        return decoded.get(0);
+    }
+
+    private static void assertMalformed(int... bytes) {
+        byte[] frame = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            frame[i] = (byte) bytes[i];
+        }
+        assertThrows(IllegalArgumentException.class, () -> WhiteboardBinaryCodec.decode(frame));
+    }
+
+    // Coordinates above are exact in float32
+    private static void assertEvents(List<WhiteboardDrawEvent> expected, List<WhiteboardDrawEvent> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            WhiteboardDrawEvent e = expected.get(i);
+            WhiteboardDrawEvent a = actual.get(i);
+            String at = "event " + i;
+            assertEquals(e.getType(), a.getType(), at);
+            assertEquals(e.getX(), a.getX(), at);
+            assertEquals(e.getY(), a.getY(), at);
+            assertEquals(e.getPrevX(), a.getPrevX(), at);
+            assertEquals(e.getPrevY(), a.getPrevY(), at);
+            assertEquals(e.getColor(), a.getColor(), at);
+            assertEquals(e.getLineWidth(), a.getLineWidth(), at);
+            assertEquals(e.getUserId(), a.getUserId(), at);
+            assertEquals(e.getSeq(), a.getSeq(), at);
+            assertEquals(e.getTimestamp(), a.getTimestamp(), at);
+        }
+    }
+}
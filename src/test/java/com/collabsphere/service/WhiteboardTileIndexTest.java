@@ -0,0 +1,224 @@
+package com.collabsphere.service;
+
+import com.collabsphere.dto.WhiteboardDrawEvent;
+import com.collabsphere.dto.WhiteboardTile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhiteboardTileIndexTest {
+
+    private static final double FAR = 1e6;
+
+    private final WhiteboardTileIndex index = new WhiteboardTileIndex(100, 0);
+
+    @Test
+    void opsWithoutPointOrSeqAreIgnored() {
+        WhiteboardDrawEvent noX = segment(10, 10, 20, 20, 1L);
+        noX.setX(null);
+        WhiteboardDrawEvent noY = segment(10, 10, 20, 20, 2L);
+        noY.setY(null);
+        WhiteboardDrawEvent noSeq = segment(10, 10, 20, 20, null);
+
+        index.add(noX);
+        index.add(noY);
+        index.add(noSeq);
+
+        assertTrue(everything(0).isEmpty());
+        assertNull(index.wide(0));
+    }
+
+    @Test
+    void segmentGoesIntoEveryTileItsBoxOverlaps() {
+        index.add(segment(50, 50, 250, 150, 1L));
+
+        assertEquals(List.of("0,0", "1,0", "2,0", "0,1", "1,1", "2,1"), coordinates(everything(0)));
+    }
+
+    @Test
+    void dotWithoutPreviousPointTakesOneTile() {
+        WhiteboardDrawEvent dot = segment(0, 0, 150, 250, 1L);
+        dot.setPrevX(null);
+        dot.setPrevY(null);
+
+        index.add(dot);
+
+        assertEquals(List.of("1,2"), coordinates(everything(0)));
+    }
+
+    @Test
+    void halfTheLineWidthWidensTheBox() {
+        WhiteboardDrawEvent thin = segment(98, 50, 98, 50, 1L);
+        WhiteboardDrawEvent wide = segment(98, 50, 98, 50, 2L);
+        wide.setLineWidth(6);
+        WhiteboardDrawEvent negative = segment(98, 50, 98, 50, 3L);
+        negative.setLineWidth(-50);
+
+        index.add(thin);
+        index.add(negative);
+        assertEquals(List.of("0,0"), coordinates(everything(0)));
+
+        index.add(wide);
+        List<WhiteboardTile> tiles = everything(0);
+        assertEquals(List.of("0,0", "1,0"), coordinates(tiles));
+        assertEquals(List.of(wide), tiles.get(1).getOps());
+    }
+
+    @Test
+    void negativeCoordinatesRoundDown() {
+        index.add(dot(-1, -1, 1L));
+        index.add(dot(-100, 0, 2L));
+        index.add(dot(-100.5, -200, 3L));
+
+        assertEquals(List.of("-2,-2", "-1,-1", "-1,0"), coordinates(everything(0)));
+    }
+
+    @Test
+    void queryReturnsOverlappingTilesInRowMajorOrder() {
+        index.add(dot(150, 150, 1L));
+        index.add(dot(50, 150, 2L));
+        index.add(dot(150, 50, 3L));
+        index.add(dot(50, 50, 4L));
+        index.add(dot(450, 450, 5L));
+
+        List<String> expected = List.of("0,0", "1,0", "0,1", "1,1");
+        // Small region: looked up tile by tile
+        assertEquals(expected, coordinates(index.query(0, 0, 199, 199, 0)));
+        // Region larger than the board: the stored tiles are scanned and sorted
+        assertEquals(expected, coordinates(index.query(-FAR, -FAR, 199, 199, 0)));
+        assertEquals(List.of("1,1", "4,4"), coordinates(index.query(100, 100, FAR, FAR, 0)));
+        assertTrue(index.query(200, 200, 399, 399, 0).isEmpty());
+    }
+
+    @Test
+    void tilesAtOrBelowSinceComeWithoutOps() {
+        WhiteboardDrawEvent first = dot(10, 10, 1L);
+        WhiteboardDrawEvent second = dot(20, 20, 2L);
+        WhiteboardDrawEvent third = dot(110, 10, 5L);
+        index.add(first);
+        index.add(second);
+        index.add(third);
+
+        List<WhiteboardTile> all = everything(0);
+        assertEquals(2L, all.get(0).getVersion());
+        assertEquals(List.of(first, second), all.get(0).getOps());
+        assertEquals(5L, all.get(1).getVersion());
+
+        List<WhiteboardTile> changed = everything(2);
+        assertNull(changed.get(0).getOps());
+        assertEquals(2L, changed.get(0).getVersion());
+        assertEquals(List.of(third), changed.get(1).getOps());
+
+        assertTrue(everything(5).stream().allMatch(tile -> tile.getOps() == null));
+    }
+
+    @Test
+    void sinceBeforeResetStillGetsOps() {
+        WhiteboardTileIndex loaded = new WhiteboardTileIndex(100, 10);
+        loaded.add(dot(10, 10, 3L));
+
+        // The client's copy predates the reset, so version 3 tells it nothing
+        assertNotNull(loaded.query(0, 0, 0, 0, 5).get(0).getOps());
+        assertNull(loaded.query(0, 0, 0, 0, 10).get(0).getOps());
+    }
+
+    @Test
+    void opsOverMoreThanSixtyFourTilesGoToWideBucket() {
+        WhiteboardDrawEvent fits = segment(0, 0, 799, 799, 1L);
+        WhiteboardDrawEvent tooWide = segment(0, 0, 899, 799, 2L);
+
+        index.add(fits);
+        assertEquals(64, everything(0).size());
+        assertNull(index.wide(0));
+
+        index.add(tooWide);
+        assertEquals(64, everything(0).size());
+        WhiteboardTile wide = index.wide(0);
+        assertEquals(2L, wide.getVersion());
+        assertEquals(List.of(tooWide), wide.getOps());
+        assertNull(index.wide(2).getOps());
+    }
+
+    @Test
+    void hugeCoordinatesDoNotLoop() {
+        index.add(dot(Double.MAX_VALUE, -Double.MAX_VALUE, 1L));
+
+        List<WhiteboardTile> tiles = index.query(-Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, 0);
+        assertEquals(1, tiles.size());
+        assertEquals(Integer.MAX_VALUE, tiles.get(0).getX());
+        assertEquals(Integer.MIN_VALUE, tiles.get(0).getY());
+
+        WhiteboardDrawEvent across = segment(-Double.MAX_VALUE, -Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE, 2L);
+        index.add(across);
+        assertEquals(List.of(across), index.wide(0).getOps());
+    }
+
+    @Test
+    void invertedRegionIsEmpty() {
+        index.add(dot(10, 10, 1L));
+
+        assertTrue(index.query(50, 50, -50, -50, 0).isEmpty());
+        assertTrue(index.query(50, 50, 50, -50, 0).isEmpty());
+    }
+
+    @Test
+    void resetDropsEverything() {
+        index.add(dot(10, 10, 1L));
+        index.add(segment(0, 0, 5000, 5000, 2L));
+
+        index.reset(7);
+
+        assertEquals(7, index.resetSeq());
+        assertTrue(everything(0).isEmpty());
+        assertNull(index.wide(0));
+
+        WhiteboardDrawEvent after = dot(10, 10, 8L);
+        index.add(after);
+        List<WhiteboardTile> tiles = everything(1);
+        assertEquals(8L, tiles.get(0).getVersion());
+        assertEquals(List.of(after), tiles.get(0).getOps());
+    }
+
+    @Test
+    void viewsAreCopies() {
+        WhiteboardDrawEvent first = dot(10, 10, 1L);
+        index.add(first);
+        List<WhiteboardDrawEvent> ops = everything(0).get(0).getOps();
+
+        index.add(dot(20, 20, 2L));
+
+        assertEquals(1, ops.size());
+        assertSame(first, ops.get(0));
+        assertEquals(100, index.tileSize());
+    }
+
+    private List<WhiteboardTile> everything(long since) {
+        return index.query(-FAR, -FAR, FAR, FAR, since);
+    }
+
+    private static List<String> coordinates(List<WhiteboardTile> tiles) {
+        return tiles.stream().map(tile -> tile.getX() + "," + tile.getY()).toList();
+    }
+
+    private static WhiteboardDrawEvent dot(double x, double y, Long seq) {
+        WhiteboardDrawEvent event = new WhiteboardDrawEvent();
+        event.setType("draw");
+        event.setX(x);
+        event.setY(y);
+        event.setSeq(seq);
+        return event;
+    }
+
+    private static WhiteboardDrawEvent segment(double prevX, double prevY, double x, double y, Long seq) {
+        WhiteboardDrawEvent event = dot(x, y, seq);
+        event.setPrevX(prevX);
+        event.setPrevY(prevY);
+        return event;
+    }
+}